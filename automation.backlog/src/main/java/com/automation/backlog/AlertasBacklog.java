@@ -0,0 +1,87 @@
+package com.automation.backlog;
+
+import java.io.IOException;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.StandardOpenOption;
+import java.time.LocalDateTime;
+import java.time.format.DateTimeFormatter;
+import java.util.ArrayList;
+import java.util.HashSet;
+import java.util.List;
+import java.util.Set;
+
+/**
+ * Avisos de nuevos días sin gestión detectados durante el modo vigilancia.
+ *
+ * Cada aviso se muestra en la consola y se agrega como una fila al archivo
+ * <code>alertas_backlog.csv</code> (separado por ";"), que solo crece, para poder revisar
+ * al final del día todo lo que apareció.
+ */
+public class AlertasBacklog {
+
+	/** Nombre del archivo de alertas, ubicado junto al archivo de configuración. */
+	public static final String NOMBRE_ARCHIVO = "alertas_backlog.csv";
+
+	private static final String CABECERA = "Detectado;N° servicio;Dia afectado;Analista afectado;Fecha ult. nota;Ult. nota";
+	private static final DateTimeFormatter FORMATO_HORA = DateTimeFormatter.ofPattern("dd/MM/yy HH:mm");
+
+	private final Path archivo;
+
+	/**
+	 * Constructor de AlertasBacklog.
+	 *
+	 * @param archivo Ruta del archivo de alertas.
+	 */
+	public AlertasBacklog(Path archivo) {
+		this.archivo = archivo;
+	}
+
+	/**
+	 * Compara las filas de un servicio antes y después de revisarlo, y avisa de los días
+	 * sin gestión que no estaban antes. Las filas sin día afectado (último día gestionado) no generan aviso.
+	 *
+	 * @param anteriores Filas anteriores del servicio; puede ser null.
+	 * @param nuevas Filas nuevas del servicio; puede ser null.
+	 * @return Número de avisos emitidos.
+	 */
+	public int avisarNuevosDias(List<String[]> anteriores, List<String[]> nuevas) {
+		if (nuevas == null) return 0;
+
+		Set<String> diasAnteriores = new HashSet<>();
+		if (anteriores != null) {
+			for (String[] fila : anteriores) diasAnteriores.add(fila[1]);
+		}
+
+		List<String[]> avisos = new ArrayList<>();
+		for (String[] fila : nuevas) {
+			if (!fila[1].isEmpty() && !diasAnteriores.contains(fila[1])) avisos.add(fila);
+		}
+		if (!avisos.isEmpty()) escribir(avisos);
+		return avisos.size();
+	}
+
+	private void escribir(List<String[]> avisos) {
+		String detectado = LocalDateTime.now().format(FORMATO_HORA);
+		List<String> lineas = new ArrayList<>();
+		if (!Files.exists(archivo)) lineas.add(CABECERA);
+
+		for (String[] fila : avisos) {
+			System.out.println("[%s] Nuevo día sin gestión: %s el %s (analista: %s)".formatted(detectado, fila[0], fila[1], fila[2]));
+
+			StringBuilder linea = new StringBuilder(detectado);
+			for (String valor : fila) {
+				// El separador y los saltos de línea de las notas romperían la fila
+				linea.append(';').append(valor.replace(';', ',').replaceAll("\\R", " "));
+			}
+			lineas.add(linea.toString());
+		}
+
+		try {
+			Files.write(archivo, lineas, StandardCharsets.UTF_8, StandardOpenOption.CREATE, StandardOpenOption.APPEND);
+		} catch (IOException e) {
+			System.err.println("No se pudo escribir el archivo de alertas '" + archivo + "': " + e.getMessage());
+		}
+	}
+}
@@ -20,7 +20,8 @@ import java.util.stream.Collectors;
  * </pre>
  * 
  * <p>Las fechas de inicio y fin definen el rango que será analizado, y las entradas fuera de este
- * intervalo serán ignoradas.
+ * intervalo serán ignoradas. Solo se reportan como días sin gestión los días laborables según el
+ * {@link CalendarioLaboral} recibido.
  */
 public class AnalizadorGestiones {
 	
@@ -33,6 +34,7 @@ public class AnalizadorGestiones {
     private final LocalDate fechaInicio;
     private final LocalDate fechaFin;
     private LocalDate fechaPrimeraGestion;
+    private final CalendarioLaboral calendario;
     
     private final DateTimeFormatter DATE_TIME_FORMATTER = DateTimeFormatter.ofPattern("dd/MM/yy HH:mm:ss");
     private final DateTimeFormatter DATE_FORMATTER = DateTimeFormatter.ofPattern("dd/MM/yy");
@@ -45,14 +47,44 @@ public class AnalizadorGestiones {
      * @param fechaF Fecha de fin del análisis (formato "dd/MM/yy").
      */
     public AnalizadorGestiones(String texto, String fechaI, String fechaF) {
+        this(texto, fechaI, fechaF, null);
+    }
+    
+    /**
+     * Constructor que además recibe el calendario laboral precalculado para la ejecución.
+     *
+     * @param texto Texto completo con las actividades del servicio.
+     * @param fechaI Fecha de inicio del análisis (formato "dd/MM/yy").
+     * @param fechaF Fecha de fin del análisis (formato "dd/MM/yy").
+     * @param calendario Calendario laboral que cubre el rango; si es null todos los días son laborables.
+     */
+    public AnalizadorGestiones(String texto, String fechaI, String fechaF, CalendarioLaboral calendario) {
 
         // Definir rango de fechas a analizar
         this.fechaInicio = LocalDate.parse(fechaI, DATE_FORMATTER);
         this.fechaFin = LocalDate.parse(fechaF, DATE_FORMATTER);
         this.texto = texto; // Texto total de las actividades diarias del servicio
         this.fechaPrimeraGestion = LocalDate.parse(fechaI, DATE_FORMATTER);
+        
+        if (calendario == null) {
+        	calendario = CalendarioLaboral.todosLosDias(fechaInicio, fechaFin);
+        } else if (!calendario.cubre(fechaInicio, fechaFin)) {
+        	throw new IllegalArgumentException("El calendario laboral no cubre el rango " + fechaI + " - " + fechaF);
+        }
+        this.calendario = calendario;
     }
     
+    /**
+     * Cuenta las entradas de gestión reconocibles en un texto, sin analizarlas.
+     * Sirve para identificar, entre varios bloques de texto, el que contiene las actividades.
+     *
+     * @param texto Texto a revisar.
+     * @return Número de entradas con formato "dd/MM/yy HH:mm:ss Nombre (Usuario): nota".
+     */
+    public static int contarEntradas(String texto) {
+    	return (int) ENTRADA_PATTERN.matcher(texto).results().count();
+    }
+
     /**
      * Revisa las gestiones del texto y devuelve los días con backlog o el último día gestionado si no hubo backlog.
      *
@@ -160,43 +192,52 @@ public class AnalizadorGestiones {
     }
     
     /**
-     * Encuentra días dentro del rango en los que no se realizó ninguna gestión.
+     * Encuentra días laborables dentro del rango en los que no se realizó ninguna gestión.
      * Para cada día sin gestión, intenta encontrar el autor de la gestión más reciente anterior.
+     * 
+     * Los días sin gestión se calculan sobre mapas de bits: laborables ANDNOT días con gestión,
+     * descartando los días hasta la primera gestión del servicio.
      *
-     * @param gestiones Lista completa de gestiones.
+     * @param gestiones Lista completa de gestiones, ordenada cronológicamente.
      * @param inicio Fecha de inicio del rango.
      * @param fin Fecha de fin del rango.
      * @return Mapa con fecha como clave y el nombre del autor como valor.
      */
     private Map<LocalDate, String> encontrarDiasSinGestion(List<Gestion> gestiones, LocalDate inicio, LocalDate fin) {
         Map<LocalDate, String> diasSinGestionConAutor = new TreeMap<>();
+        int desde = calendario.indice(inicio);
+        int hasta = calendario.indice(fin) + 1;
 
-        // Iterar sobre cada día en el rango
-        for (LocalDate dia = inicio; !dia.isAfter(fin); dia = dia.plusDays(1)) {
-            boolean tieneGestion = false;
-            String autor = "Sin autor"; // Si no encontramos autor, lo dejamos como "Sin autor"
+        // Días candidatos: laborables del rango posteriores a la primera gestión
+        BitSet sinGestion = calendario.copiaLaborables();
+        sinGestion.clear(0, desde);
+        sinGestion.clear(hasta, calendario.getTotalDias());
+        int primera = calendario.indice(this.fechaPrimeraGestion);
+        if (primera >= 0) {
+        	sinGestion.clear(0, Math.min(primera + 1, calendario.getTotalDias()));
+        }
 
-            // Verificar si el día tiene una gestión registrada
-            for (Gestion gestion : gestiones) {
-                if (gestion.getFechaHora().toLocalDate().isEqual(dia)) {
-                    tieneGestion = true;
-                    autor = gestion.getAutor(); // Si tiene gestión, tomamos el autor
-                    break;
-                }
-            }
+        // Quitamos los días que tienen alguna gestión registrada
+        BitSet conGestion = new BitSet(calendario.getTotalDias());
+        for (Gestion gestion : gestiones) {
+        	int i = calendario.indice(gestion.getFechaHora().toLocalDate());
+        	if (i >= desde && i < hasta) {
+        		conGestion.set(i);
+        	}
+        }
+        sinGestion.andNot(conGestion);
 
-            // Si no tiene gestión, marcamos como "sin gestión" y buscamos el autor hacia atrás
-            if (!tieneGestion && dia.isAfter(this.fechaPrimeraGestion)) {
-                // Iteramos hacia atrás para encontrar el autor de la última gestión anterior
-                for (int i = gestiones.size() - 1; i >= 0; i--) {
-                    Gestion gestion = gestiones.get(i);
-                    if (gestion.getFechaHora().toLocalDate().isBefore(dia)) {
-                        autor = gestion.getAutor();
-                        break;
-                    }
-                }
-                diasSinGestionConAutor.put(dia, autor);
-            }
+        // Recorremos los días sin gestión en orden, avanzando en paralelo por las gestiones
+        // para quedarnos con el autor de la última gestión anterior a cada día
+        int g = 0;
+        String autor = "Sin autor"; // Si no encontramos autor, lo dejamos como "Sin autor"
+        for (int i = sinGestion.nextSetBit(0); i >= 0; i = sinGestion.nextSetBit(i + 1)) {
+        	LocalDate dia = calendario.fecha(i);
+        	while (g < gestiones.size() && gestiones.get(g).getFechaHora().toLocalDate().isBefore(dia)) {
+        		autor = gestiones.get(g).getAutor();
+        		g++;
+        	}
+        	diasSinGestionConAutor.put(dia, autor);
         }
 
         return diasSinGestionConAutor;
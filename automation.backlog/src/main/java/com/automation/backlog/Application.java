@@ -52,13 +52,28 @@ public class Application implements CommandLineRunner {
      * Despliega un menú interactivo para el usuario en consola.
      * 
      * Las opciones permiten ejecutar la automatización, descargar archivos, o salir.
+     * Con los argumentos <code>--coordinador &lt;config.json&gt;</code> o
+     * <code>--trabajador &lt;carpeta cola_trabajo&gt; [&lt;credenciales.json&gt;]</code> se ejecuta el modo
+     * coordinador/trabajador sin mostrar el menú.
      *
-     * @param args Argumentos pasados al ejecutar la aplicación (no utilizados).
+     * @param args Argumentos pasados al ejecutar la aplicación.
      * @throws Exception Si ocurre algún error durante la ejecución.
      */
 	@Override
 	public void run(String... args) throws Exception {
 		
+		// Modo coordinador/trabajador: se ejecuta sin menú y la aplicación termina al acabar
+		if (args.length == 2 && "--coordinador".equals(args[0])) {
+			executeCoordinator(args[1].replaceAll("^\"|\"$", ""));
+			System.exit(0);
+			return;
+		}
+		if ((args.length == 2 || args.length == 3) && "--trabajador".equals(args[0])) {
+			executeWorker(args[1].replaceAll("^\"|\"$", ""), args.length == 3 ? args[2].replaceAll("^\"|\"$", "") : null);
+			System.exit(0);
+			return;
+		}
+		
 		Scanner scanner = new Scanner(System.in);
 
         // Bucle infinito para mostrar el menú hasta que el usuario elija salir
@@ -161,7 +176,7 @@ public class Application implements CommandLineRunner {
 
             // Inicia el WebDriver con las opciones configuradas
             System.out.println("Paso 5: Ejecutando la automatización principal...");
-            BacklogAutomation automation = new BacklogAutomation(driver, config, jsonPath);
+            BacklogAutomation automation = new BacklogAutomation(driver, () -> new ChromeDriver(options), config, jsonPath);
             result = automation.run();
             System.out.println("Paso 5: ¡Automatización completada!");
             
@@ -182,6 +197,109 @@ public class Application implements CommandLineRunner {
         }
     }
     
+    /**
+     * Ejecuta el coordinador: reparte los servicios del archivo de configuración en lotes,
+     * espera a que los trabajadores los revisen y une sus resultados en el archivo Excel.
+     * El coordinador no abre el navegador.
+     *
+     * @param jsonPath La ruta completa al archivo de configuración del usuario.
+     */
+    private void executeCoordinator(String jsonPath) {
+        System.out.println("-------------------------------");
+        System.out.println("     INICIANDO COORDINADOR     ");
+        System.out.println("-------------------------------\n\n");
+        
+        String result = """
+        	    
+        	    -------------------------------
+        	       AUTOMATIZACIÓN FINALIZADA ERROR    
+        	    -------------------------------
+        	    
+        	    """;
+        try {
+            ObjectMapper mapper = new ObjectMapper();
+            Config config = mapper.readValue(new File(jsonPath), Config.class);
+            result = new CoordinadorLotes(config, jsonPath).ejecutar();
+        } catch (Throwable t) {
+            System.err.println("!!!!!!!!!!!!!!!!!!!!!!!!!!!!!!!!!!!!!!!!!!!!!!!");
+            System.err.println("!!!      SE PRODUJO UN ERROR INESPERADO     !!!");
+            System.err.println("!!!!!!!!!!!!!!!!!!!!!!!!!!!!!!!!!!!!!!!!!!!!!!!");
+            t.printStackTrace();
+        }
+        System.out.println(result);
+    }
+    
+    /**
+     * Ejecuta un trabajador: abre el navegador, inicia sesión una sola vez y revisa los lotes
+     * que publica el coordinador en la carpeta de la cola hasta que este termina.
+     * La carpeta de la cola no incluye credenciales: se leen del archivo indicado o se piden en la consola.
+     *
+     * @param directorioCola La ruta de la carpeta 'cola_trabajo' creada por el coordinador.
+     * @param credencialesPath Ruta de un archivo JSON con "user" y "passw" (ej. un config.json propio); null para pedirlas.
+     */
+    private void executeWorker(String directorioCola, String credencialesPath) {
+        System.out.println("-------------------------------");
+        System.out.println("      INICIANDO TRABAJADOR     ");
+        System.out.println("-------------------------------\n\n");
+        
+        WebDriver driver = null;
+        String result = """
+        	    
+        	    -------------------------------
+        	       AUTOMATIZACIÓN FINALIZADA ERROR    
+        	    -------------------------------
+        	    
+        	    """;
+        try {
+            String[] credenciales = leerCredenciales(credencialesPath);
+            
+            WebDriverManager.chromedriver().setup();
+            ChromeOptions options = new ChromeOptions();
+            options.addArguments("--start-maximized");
+            driver = new ChromeDriver(options);
+            
+            result = new TrabajadorLotes(Paths.get(directorioCola)).ejecutar(driver, () -> new ChromeDriver(options),
+            		credenciales[0], credenciales[1]);
+        } catch (Throwable t) {
+            System.err.println("!!!!!!!!!!!!!!!!!!!!!!!!!!!!!!!!!!!!!!!!!!!!!!!");
+            System.err.println("!!!      SE PRODUJO UN ERROR INESPERADO     !!!");
+            System.err.println("!!!!!!!!!!!!!!!!!!!!!!!!!!!!!!!!!!!!!!!!!!!!!!!");
+            t.printStackTrace();
+        } finally {
+        	if (driver != null) {
+                System.out.println("Cerrando el navegador...");
+                driver.quit();
+            }
+            System.out.println(result);
+        }
+    }
+    
+    /**
+     * Obtiene las credenciales del portal de un trabajador.
+     *
+     * @param credencialesPath Ruta de un archivo JSON con "user" y "passw"; null para pedirlas en la consola.
+     * @return Usuario y contraseña.
+     * @throws IOException si no se puede leer el archivo de credenciales.
+     */
+    private String[] leerCredenciales(String credencialesPath) throws IOException {
+        if (credencialesPath != null) {
+            Config config = new ObjectMapper().readValue(new File(credencialesPath), Config.class);
+            return new String[] { config.user, config.passw };
+        }
+        
+        // La contraseña no se muestra si la aplicación corre en una consola
+        Scanner scanner = new Scanner(System.in);
+        System.out.print("Usuario del portal: ");
+        String user = scanner.nextLine().trim();
+        String passw;
+        if (System.console() != null) {
+            passw = new String(System.console().readPassword("Contraseña del portal: "));
+        } else {
+            System.out.print("Contraseña del portal: ");
+            passw = scanner.nextLine();
+        }
+        return new String[] { user, passw };
+    }
     
     /**
      * Lee un archivo desde los recursos del JAR y la guarda
@@ -5,18 +5,34 @@ import java.io.IOException;
 import java.io.File;
 import java.nio.file.Paths;
 import java.time.Duration;
+import java.time.LocalDate;
+import java.time.LocalDateTime;
+import java.time.LocalTime;
+import java.time.format.DateTimeFormatter;
+import java.time.format.DateTimeParseException;
 import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.HashSet;
+import java.util.LinkedHashMap;
 import java.util.List;
+import java.util.Map;
+import java.util.Queue;
+import java.util.Set;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ConcurrentLinkedQueue;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+import java.util.function.Supplier;
+import java.util.regex.Matcher;
+import java.util.regex.Pattern;
 
 import org.apache.poi.ss.usermodel.*;
 import org.apache.poi.xssf.usermodel.XSSFWorkbook;
 
-import org.openqa.selenium.By;
-import org.openqa.selenium.Keys;
 import org.openqa.selenium.WebDriver;
-import org.openqa.selenium.WebElement;
-import org.openqa.selenium.support.ui.ExpectedConditions;
-import org.openqa.selenium.support.ui.WebDriverWait;
+import org.openqa.selenium.WebDriverException;
 
 /**
  * Clase principal encargada de automatizar la revisión de backlog de servicios
@@ -30,12 +46,20 @@ import org.openqa.selenium.support.ui.WebDriverWait;
  *   <li>Exportar los resultados a un archivo Excel.</li>
  * </ul>
  * 
+ * La extracción puede repartirse entre varias {@link SesionPortal} en paralelo, en navegadores
+ * distintos o en pestañas de un mismo navegador; el número de sesiones activas y el ritmo de
+ * peticiones los decide un {@link ControladorConcurrencia}.
+ * 
  * Esta clase se apoya en {@link AnalizadorGestiones} para analizar el contenido
  * textual de las actividades.
  */
 public class BacklogAutomation {
+	private static final Pattern PREFIJO_PATTERN = Pattern.compile("^[A-Za-z]+");
+	private static final int MAX_REINTENTOS = 1;
+	private static final int INTERVALO_VIGILANCIA_SEGUNDOS = 300;
+	private static final Duration INTERVALO_SIN_MARCA = Duration.ofHours(1);
+	
 	private String url;
-	private String  srcIframe;
 	private String  user;
 	private String  passw;
 	private String  fechaInicio;
@@ -43,8 +67,31 @@ public class BacklogAutomation {
     private List<String> servicios;
     private List<String[]> backlog;
     private WebDriver driver;
+    private Supplier<WebDriver> fabricaDriver;
     private int waitSeconds;
     private String jsonFilePath;
+    private String directorioSalida;
+    private String modoExtraccion;
+    private int maxSesiones;
+    private int pestanas;
+    private long pausaMinimaMs;
+    private Config.Calendario configCalendario;
+    private String equipo;
+    private boolean modoDelta;
+    private boolean enlaceDirecto;
+    private ReporteDelta deltaBase;
+    private CalendarioLaboral calendario;
+    private Map<String, PerfilPagina> perfiles;
+    private EstadisticasServicios estadisticas;
+    private ProgresoRevision progreso;
+    private Config.Vigilancia vigilancia;
+    private SesionPortal sesionPrincipal;
+    private Map<String, String> textos = new ConcurrentHashMap<>();
+    private Set<String> cerrados = ConcurrentHashMap.newKeySet();
+    private SalidaResultados salidaResultados;
+    private SesionPortal[] sesiones;
+    private boolean conservarSesiones;
+    private volatile boolean detenido;
     
     /**
      * Constructor de BacklogAutomation.
@@ -54,24 +101,64 @@ public class BacklogAutomation {
      * @param jsonPath Ruta del archivo JSON de entrada, utilizada como base para generar la ruta de salida Excel.
      */
     public BacklogAutomation(WebDriver driver, Config config, String jsonPath) {
+    	this(driver, null, config, jsonPath);
+    }
+    
+    /**
+     * Constructor de BacklogAutomation que permite abrir sesiones adicionales en paralelo.
+     *
+     * @param driver WebDriver de la sesión principal.
+     * @param fabricaDriver Fábrica de WebDrivers para las sesiones adicionales; si es null solo se usa la principal.
+     * @param config Objeto de configuración que contiene URL, credenciales, fechas y servicios.
+     * @param jsonPath Ruta del archivo JSON de entrada, utilizada como base para generar la ruta de salida Excel.
+     */
+    public BacklogAutomation(WebDriver driver, Supplier<WebDriver> fabricaDriver, Config config, String jsonPath) {
         this.driver = driver;
+        this.fabricaDriver = fabricaDriver;
         this.url = config.url;
         this.user = config.user;
         this.passw = config.passw;
         this.fechaInicio = config.fechaInicio;
         this.fechaFin = config.fechaFin;
         this.servicios = config.servicios;
-        this.srcIframe = "";
         this.waitSeconds = 10;
         this.backlog = new ArrayList<>();
         this.jsonFilePath = jsonPath;
+        this.directorioSalida = new File(jsonPath).getParent();
+        this.modoExtraccion = config.modoExtraccion;
+        this.configCalendario = config.calendario;
+        this.equipo = config.equipo;
+        this.modoDelta = Boolean.TRUE.equals(config.modoDelta);
+        this.enlaceDirecto = Boolean.TRUE.equals(config.enlaceDirecto);
+        this.vigilancia = config.vigilancia;
+        
+        // Sin fábrica de drivers no es posible abrir sesiones adicionales
+        this.maxSesiones = fabricaDriver == null || config.maxSesiones == null ? 1 : Math.max(1, config.maxSesiones);
+        this.pausaMinimaMs = config.pausaMinimaMs == null ? 0 : config.pausaMinimaMs;
+        
+        // Las pestañas se turnan el mismo WebDriver, así que solo se intercalan en modo "dom":
+        // un script asíncrono o la captura de red ocuparían el navegador durante toda la espera
+        this.pestanas = config.pestanas == null ? 1 : Math.max(1, config.pestanas);
+        if (pestanas > 1 && modoExtraccion != null && !"dom".equalsIgnoreCase(modoExtraccion)) {
+        	System.err.println("Las pestañas solo se usan con modoExtraccion \"dom\"; se usará una pestaña por navegador.");
+        	this.pestanas = 1;
+        }
+        
+        // El historial de tiempos se guarda junto al archivo de configuración
+        this.estadisticas = EstadisticasServicios.cargar(
+        		Paths.get(new File(jsonPath).getParent(), EstadisticasServicios.NOMBRE_ARCHIVO));
+        
+        // El avance se muestra en la consola y se publica en un archivo de estado junto al de configuración
+        this.progreso = new ProgresoRevision()
+        		.agregarOyente(new ProgresoConsola())
+        		.agregarOyente(new ProgresoArchivo(Paths.get(new File(jsonPath).getParent(), ProgresoArchivo.NOMBRE_ARCHIVO)));
     }
     
     /**
      * Ejecuta la automatización completa:
      * <ul>
      *   <li>Inicia sesión en el sistema.</li>
-     *   <li>Revisa incidentes o peticiones según los servicios configurados.</li>
+     *   <li>Revisa los incidentes y peticiones configurados, agrupados por cola.</li>
      *   <li>Extrae la información de backlog.</li>
      *   <li>Guarda los resultados en un archivo Excel.</li>
      * </ul>
@@ -79,23 +166,58 @@ public class BacklogAutomation {
      * @return Mensaje de resultado indicando éxito o error.
      */
     public String run() {
-        
-        // Abrimos la pagina
-        driver.get(url);
+    	this.detenido = false;
+    	
+    	// Precalculamos el calendario laboral una sola vez para todos los servicios
+    	// y cargamos los perfiles de página de cada tipo de servicio
+    	try {
+    		DateTimeFormatter formatter = DateTimeFormatter.ofPattern("dd/MM/yy");
+    		this.calendario = CalendarioLaboral.desdeConfig(configCalendario, equipo,
+    				LocalDate.parse(fechaInicio, formatter), LocalDate.parse(fechaFin, formatter));
+    		this.perfiles = PerfilPagina.cargar();
+    	} catch (IOException e) {
+    		System.err.println("Error al leer los archivos de configuración internos.");
+    		e.printStackTrace();
+    		return """
 
-        // Iniciamos sesion
- 		driver.findElement(By.id("LoginUsername")).sendKeys(user);
- 		driver.findElement(By.id("LoginPassword")).sendKeys(passw);
- 		driver.findElement(By.id("loginBtn")).click();
- 		
- 		if(!servicios.isEmpty() && servicios.get(0).startsWith("IN")) {
- 			this.revisarIncidentes();		// Si los servicios a revisar no son IN
- 		}
- 		else if(!servicios.isEmpty() && servicios.get(0).startsWith("PT")) {
- 			this.revisarPeticiones();		// Si los servicios a revisar no son PT
- 		}
- 		else {
- 			System.out.println(new Error("No hay servicios para revisar"));
+    		        -------------------------------
+    		           AUTOMATIZACIÓN FINALIZADA ERROR    
+    		           No se pudo leer el archivo de festivos o los perfiles de página. Revise el archivo de extensión .json   
+    		        -------------------------------
+
+    		        """;
+    	} catch (IllegalStateException e) {
+    		// Un perfil de página incompleto o con una expresión inválida
+    		System.err.println(e.getMessage());
+    		return """
+
+    		        -------------------------------
+    		           AUTOMATIZACIÓN FINALIZADA ERROR    
+    		           Perfil de página inválido. Consulte con el desarrollador   
+    		        -------------------------------
+
+    		        """;
+    	} catch (IllegalArgumentException | DateTimeParseException e) {
+    		// Fechas con formato incorrecto, fecha fin anterior a la de inicio o calendario mal escrito
+    		System.err.println(e.getMessage());
+    		return """
+
+    		        -------------------------------
+    		           AUTOMATIZACIÓN FINALIZADA ERROR    
+    		           Fechas o calendario laboral incorrectos. Revise el archivo de extensión .json   
+    		        -------------------------------
+
+    		        """;
+    	}
+
+ 		// Agrupamos los servicios por tipo antes de tocar el portal, para rechazar
+ 		// los prefijos desconocidos sin gastar tiempos de espera
+ 		Map<String, List<String>> grupos = agruparPorPrefijo(servicios);
+ 		List<String> desconocidos = grupos.remove("");
+ 		if (grupos.isEmpty() || desconocidos != null) {
+ 			System.out.println(new Error(grupos.isEmpty() && desconocidos == null
+ 					? "No hay servicios para revisar"
+ 					: "Servicios con tipo desconocido: " + desconocidos));
  			return """
 
  			        -------------------------------
@@ -105,19 +227,139 @@ public class BacklogAutomation {
 
  			        """;
  		}
+
+ 		// El modo vigilancia necesita leer la vista de cada cola
+ 		if (vigilancia != null) {
+ 			for (String prefijo : grupos.keySet()) {
+ 				if (!perfiles.get(prefijo).admiteVigilancia()) {
+ 					System.err.println("El perfil de página '" + prefijo + "' no define la vista de la cola (filasCola, celdasCola, columnas)");
+ 					return """
+
+ 					        -------------------------------
+ 					           AUTOMATIZACIÓN FINALIZADA ERROR    
+ 					           El modo vigilancia no está disponible para la cola '%s'. Consulte con el desarrollador   
+ 					        -------------------------------
+
+ 					        """.formatted(perfiles.get(prefijo).nombre);
+ 				}
+ 			}
+ 		}
+
+ 		// Cada navegador aporta tantas sesiones como pestañas
+ 		int totalSesiones = maxSesiones * pestanas;
+ 		
+ 		long inicioRevision = System.currentTimeMillis();
+        
+ 		// La sesión principal usa el driver recibido; las demás se abren bajo demanda.
+ 		// Las sesiones se agrupan por navegador: de cada 'pestanas' sesiones, la primera abre el
+ 		// navegador y las siguientes son pestañas suyas, así el controlador llena primero las pestañas
+ 		// Si las sesiones se conservan de una ejecución anterior (ej. un trabajador que revisa
+ 		// varios lotes), se reutilizan sin volver a abrir navegadores ni iniciar sesión
+ 		if (sesiones == null) {
+ 			sesiones = new SesionPortal[totalSesiones];
+ 		}
+ 		if (sesionPrincipal == null) {
+ 			sesionPrincipal = new SesionPortal(driver, modoExtraccion, waitSeconds);
+ 			sesionPrincipal.setEnlaceDirecto(enlaceDirecto);
+ 			sesionPrincipal.iniciarSesion(url, user, passw);
+ 		}
+ 		sesiones[0] = sesionPrincipal;
+ 		
+ 		// Validamos los selectores de todas las colas antes de repartir trabajo entre los hilos.
+ 		// Se recorren al revés para que la sesión quede en la cola que se revisa primero.
+ 		// Si la cola tiene vista de lista, se lee una vez: los servicios que no aparecen en ella
+ 		// probablemente están cerrados y se revisan al final
+ 		Set<String> probablementeCerrados = new HashSet<>();
+ 		List<String> prefijos = new ArrayList<>(grupos.keySet());
+ 		for (int i = prefijos.size() - 1; i >= 0; i--) {
+ 			PerfilPagina perfil = perfiles.get(prefijos.get(i));
+ 			try {
+ 				if (perfil.admiteVigilancia()) {
+ 					probablementeCerrados.addAll(faltantesEnCola(grupos.get(prefijos.get(i)), sesionPrincipal.leerCola(perfil)));
+ 				} else {
+ 					sesionPrincipal.abrirCola(perfil);
+ 				}
+ 			} catch (IllegalStateException e) {
+ 				System.err.println(e.getMessage());
+ 				return """
+
+ 				        -------------------------------
+ 				           AUTOMATIZACIÓN FINALIZADA ERROR    
+ 				           La página del portal no coincide con el perfil '%s'. Consulte con el desarrollador   
+ 				        -------------------------------
+
+ 				        """.formatted(perfil.nombre);
+ 			}
+ 		}
+ 		
+ 		if (!probablementeCerrados.isEmpty()) {
+ 			System.out.println(probablementeCerrados.size() + " servicios no aparecen en la vista de su cola; se revisarán al final");
+ 		}
+ 		
+ 		// Con el historial de tiempos, cada cola se procesa de mayor a menor coste
+ 		long makespanPlanificado = 0;
+ 		for (Map.Entry<String, List<String>> grupo : grupos.entrySet()) {
+ 			grupo.setValue(estadisticas.ordenar(grupo.getValue(), probablementeCerrados));
+ 			makespanPlanificado += estadisticas.makespanPlanificado(grupo.getValue(), totalSesiones);
+ 		}
+ 		
+ 		ControladorConcurrencia controlador = new ControladorConcurrencia(totalSesiones, pausaMinimaMs);
+ 		Map<String, List<String[]>> resultados = new ConcurrentHashMap<>();
+ 		progreso.iniciar(servicios.size(), controlador);
+ 		
+ 		// Cada grupo se procesa tras una única navegación a su cola, en la misma sesión
+ 		try {
+ 			for (Map.Entry<String, List<String>> grupo : grupos.entrySet()) {
+ 				PerfilPagina perfil = perfiles.get(grupo.getKey());
+ 				try {
+ 					this.revisarCola(perfil, grupo.getValue(), sesiones, controlador, resultados);
+ 				} catch (IllegalStateException e) {
+ 					System.err.println(e.getMessage());
+ 					return """
+
+ 					        -------------------------------
+ 					           AUTOMATIZACIÓN FINALIZADA ERROR    
+ 					           La página del portal no coincide con el perfil '%s'. Consulte con el desarrollador   
+ 					        -------------------------------
+
+ 					        """.formatted(perfil.nombre);
+ 				}
+ 			}
+ 		} finally {
+ 			progreso.finalizar();
+ 			if (!conservarSesiones) {
+ 				cerrarSesiones();
+ 			}
+ 			
+ 			try {
+ 				estadisticas.guardar();
+ 			} catch (IOException e) {
+ 				System.err.println("No se pudo guardar el historial de tiempos: " + e.getMessage());
+ 			}
+ 		}
+ 		long makespanReal = System.currentTimeMillis() - inicioRevision;
+ 		
+ 		// Conservamos el orden de los servicios del archivo de configuración
+ 		consolidarResultados(resultados);
  		
  		// exportamos los resultados
  		try {
             escribirResultadosEnExcel();
+            
+            // En modo vigilancia la sesión sigue abierta, revisando solo los servicios que cambien
+            if (vigilancia != null) {
+            	vigilar(grupos, controlador, resultados);
+            }
             return """
 
                     -------------------------------
                        AUTOMATIZACIÓN FINALIZADA OK    
                        Resultados guardados en: '%s'   
                        Nombre del archivo: 'resultado_backlog.xlsx'   
+                       Duración planificada: %s | Duración real: %s   
                     -------------------------------
 
-                    """.formatted(jsonFilePath);
+                    """.formatted(directorioSalida, formatearDuracion(makespanPlanificado), formatearDuracion(makespanReal));
         } catch (IOException e) {
             System.err.println("Error al escribir el archivo Excel.");
             e.printStackTrace();
@@ -133,125 +375,514 @@ public class BacklogAutomation {
     }
     
     /**
-     * Revisa los servicios de tipo "IN" (incidentes) cargando los datos desde la interfaz web
-     * y extrayendo información relevante.
+     * Cambia los servicios que revisará la próxima llamada a {@link #run()}, conservando la sesión
+     * iniciada en el portal.
+     *
+     * @param servicios Servicios a revisar.
      */
-    private void revisarIncidentes() {
-		this.srcIframe = "/especialistas/cwc/nav.menu?name=navStart&id=ROOT%2FGesti%C3%B3n%20de%20incidentes%2FCola%20de%20incidentes";
-		
-		// Esperamos a que cargue la pagina	
-		// Cuando haya cargado, nos desplazamos a la cola de incidentes
-		waitLoadComponentByXpath("//div[@id='ROOT/Gestión de incidentes']").click();
-		waitLoadComponentByXpath("//div[@id='ROOT/Gestión de incidentes/Cola de incidentes']//child::a").click();
-		
-		// Cuando cargue el panel, vamos a las opciones de busqueda
-		waitLoadComponentByXpath("//button[@aria-label='Buscar']").click();
-		
-		
-		for (String servicio : servicios) {
-			// Localiza el iframe dentro del tab
-			WebElement iframe = waitLoadComponentByXpath("//iframe[contains(@src, '" + srcIframe + "')]");
-			driver.switchTo().frame(iframe);
-
-			
-			// Localiza el input dentro del iframe
-		    WebElement input = waitLoadComponentByXpath("//input[@id='X11']");
-		    
-		    // Ingresa el n° de servicio y le damos enter
-		    input.clear();
-		    input.sendKeys(servicio);
-		    input.click();
-		    input.sendKeys(Keys.RETURN);	
-			
-			try {			
-				// Una vez que nos haya cargado la información, vamos a consultar las actividades
-				waitLoadComponentByXpath("//a[contains(@class, 'notebookTab') and contains(text(),'Actividades')]").click();
-				WebElement activitiesReadOnly = waitLoadComponentByXpath("(//div[contains(@class, 'FormatInputReadonly')]//div[contains(@class,'textareaView')])[2]");
-				String activitiesValue = activitiesReadOnly.getText();
-				
-				// Analizamos y extraemos los datos del back y las afectaciones
-				AnalizadorGestiones ag = new AnalizadorGestiones(activitiesValue, fechaInicio, fechaFin);
-		        List<String[]> result = ag.revisarBacklog(servicio);
-		        backlog.addAll(result);
-		        
-			} catch (Exception e) {
-				// Si el servicio ya está cerrado, pasará al siguiente servicio
-				continue;
-			} finally {
-				// Vuelve al contexto principal después de interactuar
-				driver.switchTo().defaultContent();
-				
-				// Salimos del servicio para poder buscar otro
-				waitLoadComponentByXpath("//button[contains(@class, 'x-btn-text') and text()='Cancelar']").click();				
-			}		
-		}
-	}
+    public void setServicios(List<String> servicios) {
+    	this.servicios = servicios;
+    }
     
     /**
-     * Revisa los servicios de tipo "PT" (peticiones) cargando los datos desde la interfaz web
-     * y extrayendo información relevante.
+     * Indica si las sesiones adicionales siguen abiertas al terminar {@link #run()}, para que la
+     * siguiente llamada las reutilice. Quien lo active debe llamar a {@link #cerrarSesiones()} al final.
+     *
+     * @param conservarSesiones true para conservar las sesiones entre ejecuciones.
      */
-    private void revisarPeticiones() {
-		this.srcIframe = "/especialistas/cwc/nav.menu?name=navStart&id=ROOT%2FGesti%C3%B3n%20de%20Peticiones%2FCola%20de%20peticiones";
-		
-		// Esperamos a que cargue la pagina
-		waitLoadComponentByXpath("//div[@id='ROOT/Gestión de Peticiones']").click();
-		waitLoadComponentByXpath("//div[@id='ROOT/Gestión de Peticiones/Cola de peticiones']//child::a").click();
-		
-		// Cuando cargue el panel, vamos a las opciones de busqueda
-		waitLoadComponentByXpath("//button[@aria-label='Buscar']").click();
-		
-		
-		for (String servicio : servicios) {
-			// Localiza el iframe dentro del tab
-			WebElement iframe = waitLoadComponentByXpath("//iframe[contains(@src, '" + srcIframe + "')]");
-			driver.switchTo().frame(iframe);
-			
-			// Localiza el input dentro del iframe
-		    WebElement input = waitLoadComponentByXpath("//input[@id='X11']");
-		    
-		    // Ingresa el n° de servicio y le damos enter
-		    input.clear();
-		    input.sendKeys(servicio);
-		    input.click();
-		    input.sendKeys(Keys.ENTER);	
-		    
-		    try {
-		    	// Esperamos a que la información del servicio nos cargue
-			    waitLoadComponentByXpath("//a[contains(@class, 'notebookTab') and contains(text(),'Actividades')]").click();
-				
-				// Una vez que nos haya cargado la información, vamos a consultar las actividades
-				WebElement activitiesReadOnly = waitLoadComponentByXpath("(//div[contains(@class, 'FormatInputReadonly')]//div[contains(@class,'textareaView')])[4]");
-				String activitiesValue = activitiesReadOnly.getText();
-				
-				// Analizamos y extraemos los datos del back y las afectaciones
-				AnalizadorGestiones ag = new AnalizadorGestiones(activitiesValue, fechaInicio, fechaFin);
-		        List<String[]> result = ag.revisarBacklog(servicio);
-		        backlog.addAll(result);
-			} catch (Exception e) {
-				// Si el servicio ya está cerrado, pasará al siguiente servicio
-				continue;
-			} finally {
-				// Vuelve al contexto principal después de interactuar
-				driver.switchTo().defaultContent();
-				
-				// Salimos del servicio para poder buscar otro
-				waitLoadComponentByXpath("//button[contains(@class, 'x-btn-text') and text()='Cancelar']").click();
-			}		
-		}
-		
-	}
-	
+    public void setConservarSesiones(boolean conservarSesiones) {
+    	this.conservarSesiones = conservarSesiones;
+    }
+    
+    /**
+     * Cierra las sesiones adicionales; la principal la cierra quien creó su WebDriver.
+     * Se recorren al revés para cerrar las pestañas antes que su navegador.
+     */
+    public void cerrarSesiones() {
+    	if (sesiones == null) return;
+    	for (int i = sesiones.length - 1; i > 0; i--) {
+    		if (sesiones[i] == null) continue;
+    		try {
+    			sesiones[i].cerrar();
+    		} catch (WebDriverException e) {
+    			System.err.println("No se pudo cerrar la sesión adicional " + i + ": " + e.getMessage());
+    		}
+    	}
+    	sesiones = null;
+    }
+    
+    /**
+     * Detiene la ejecución en curso: las sesiones terminan el servicio que están revisando y no
+     * toman ninguno más (ej. un trabajador que perdió su lote). Los servicios pendientes quedan sin resultado.
+     */
+    public void detener() {
+    	this.detenido = true;
+    }
+    
+    /**
+     * Registra un oyente adicional del avance de la revisión.
+     *
+     * @param oyente Oyente a registrar.
+     */
+    public void agregarOyenteProgreso(OyenteProgreso oyente) {
+    	progreso.agregarOyente(oyente);
+    }
+    
+    /**
+     * Define a quién se entrega el resultado de cada servicio en cuanto termina de revisarse.
+     *
+     * @param salidaResultados Salida de resultados; null para no publicar.
+     */
+    public void setSalidaResultados(SalidaResultados salidaResultados) {
+    	this.salidaResultados = salidaResultados;
+    }
+    
+    /**
+     * Exporta al archivo Excel resultados obtenidos fuera de esta instancia (ej. los que reúne el
+     * coordinador a partir de sus trabajadores), en el orden de los servicios configurados.
+     *
+     * @param resultados Filas de backlog de cada servicio.
+     * @return Mensaje de resultado indicando éxito o error.
+     */
+    public String exportarResultados(Map<String, List<String[]>> resultados) {
+    	consolidarResultados(resultados);
+    	try {
+    		escribirResultadosEnExcel();
+    		return """
+
+    		        -------------------------------
+    		           AUTOMATIZACIÓN FINALIZADA OK    
+    		           Resultados guardados en: '%s'   
+    		           Nombre del archivo: 'resultado_backlog.xlsx'   
+    		        -------------------------------
+
+    		        """.formatted(directorioSalida);
+    	} catch (IOException e) {
+    		System.err.println("Error al escribir el archivo Excel.");
+    		e.printStackTrace();
+    		return """
+
+    		        -------------------------------
+    		           AUTOMATIZACIÓN FINALIZADA ERROR    
+    		           No se pudo escribir el archivo Excel. Consulte con el desarrollador   
+    		        -------------------------------
+
+    		        """;
+    	}
+    }
+    
     /**
-     * Espera hasta que un componente esté disponible y retornable mediante su xpath.
+     * Reemplaza el backlog con los resultados de cada servicio, en el orden del archivo de configuración.
      *
-     * @param xpath Expresión XPath del componente a esperar.
-     * @return WebElement listo para interactuar.
+     * @param resultados Filas de backlog de cada servicio.
      */
-	private WebElement waitLoadComponentByXpath(String xpath) {
-		WebDriverWait wait = new WebDriverWait(driver, Duration.ofSeconds(this.waitSeconds));
-		return wait.until(ExpectedConditions.elementToBeClickable(By.xpath(xpath)));
-	}
+    private void consolidarResultados(Map<String, List<String[]>> resultados) {
+    	backlog.clear();
+    	for (String servicio : servicios) {
+    		backlog.addAll(resultados.getOrDefault(servicio, List.of()));
+    	}
+    }
+    
+    /**
+     * Modo vigilancia: consulta cada cola a intervalos y vuelve a extraer y analizar solo los
+     * servicios cuya fecha de última actualización cambió. Cuando nada cambia, cada consulta
+     * cuesta una navegación y un script por cola.
+     *
+     * <p>Los servicios que no aparecen en la vista de la cola (ej. la vista está limitada a un número
+     * de filas) no tienen marca con la que compararse, y los que fallaron no tienen texto: unos y
+     * otros se vuelven a revisar completos cada {@link #INTERVALO_SIN_MARCA}, hasta que se detecta
+     * que se cerraron.
+     *
+     * <p>Si la revisión termina en el día de hoy, el rango avanza con el calendario: al cambiar
+     * de día la fecha fin pasa a ser el día anterior, el último que ya terminó, se recalcula el
+     * calendario laboral y se vuelven a analizar los textos ya extraídos, sin tocar el portal, para
+     * detectar el nuevo día sin gestión. El día en curso no se evalúa hasta que termina: si no, cada
+     * servicio abierto aparecería sin gestión justo después de la medianoche.
+     *
+     * <p>Sin hora fin la vigilancia no termina sola; se detiene cerrando la aplicación.
+     *
+     * @param grupos Servicios agrupados por prefijo de cola.
+     * @param controlador Controlador de concurrencia de la revisión.
+     * @param resultados Filas de backlog de cada servicio, que se actualizan con los cambios.
+     * @throws IOException si no se puede escribir el archivo Excel o recalcular el calendario.
+     */
+    private void vigilar(Map<String, List<String>> grupos, ControladorConcurrencia controlador,
+    		Map<String, List<String[]>> resultados) throws IOException {
+    	DateTimeFormatter formatter = DateTimeFormatter.ofPattern("dd/MM/yy");
+    	long intervaloMs = 1000L * (vigilancia.intervaloSegundos == null ? INTERVALO_VIGILANCIA_SEGUNDOS : Math.max(1, vigilancia.intervaloSegundos));
+    	LocalDateTime fin = finVigilancia();
+    	LocalDate hoy = LocalDate.now();
+    	LocalDate inicio = LocalDate.parse(fechaInicio, formatter);
+    	boolean rangoMovil = LocalDate.parse(fechaFin, formatter).equals(hoy);
+    	long ultimaRevisionSinMarca = System.currentTimeMillis();
+    	AlertasBacklog alertas = new AlertasBacklog(Paths.get(directorioSalida, AlertasBacklog.NOMBRE_ARCHIVO));
+    	SesionPortal[] sesiones = { sesionPrincipal };
+    	
+    	// Primera lectura de las colas: referencia para detectar cambios
+    	Map<String, String> marcas = new HashMap<>();
+    	for (Map.Entry<String, List<String>> grupo : grupos.entrySet()) {
+    		Map<String, String> cola = sesionPrincipal.leerCola(perfiles.get(grupo.getKey()));
+    		if (grupo.getValue().stream().noneMatch(s -> cola.containsKey(s.trim().toUpperCase()))) {
+    			System.err.println("La cola '" + perfiles.get(grupo.getKey()).nombre + "' no muestra ninguno de los servicios configurados; sus servicios se revisarán completos cada "
+    					+ formatearDuracion(INTERVALO_SIN_MARCA.toMillis()) + ".");
+    		}
+    		marcas.putAll(cola);
+    	}
+    	System.out.println("Vigilancia activa: se consultarán las colas cada " + formatearDuracion(intervaloMs)
+    			+ (fin != null ? " hasta las " + vigilancia.horaFin : " hasta que se cierre la aplicación") + ".");
+    	
+    	while (fin == null || LocalDateTime.now().plus(Duration.ofMillis(intervaloMs)).isBefore(fin)) {
+    		try {
+    			Thread.sleep(intervaloMs);
+    		} catch (InterruptedException e) {
+    			Thread.currentThread().interrupt();
+    			return;
+    		}
+    		int avisos = 0;
+    		
+    		// Cambio de día: el rango llega hasta ayer y volvemos a analizar los textos guardados
+    		// (si ayer es anterior a la fecha de inicio, el rango quedaría vacío y se deja como está)
+    		if (rangoMovil && !hoy.equals(LocalDate.now()) && !LocalDate.now().minusDays(1).isBefore(inicio)) {
+    			hoy = LocalDate.now();
+    			LocalDate ayer = hoy.minusDays(1);
+    			this.fechaFin = ayer.format(formatter);
+    			this.calendario = CalendarioLaboral.desdeConfig(configCalendario, equipo, inicio, ayer);
+    			for (Map.Entry<String, String> texto : textos.entrySet()) {
+    				List<String[]> filas = analizar(texto.getKey(), texto.getValue());
+    				if (filas == null) continue;
+    				avisos += alertas.avisarNuevosDias(resultados.get(texto.getKey()), filas);
+    				resultados.put(texto.getKey(), filas);
+    			}
+    		}
+    		
+    		// Solo se revisan los servicios cuya última actualización cambió en la cola y, de vez en
+    		// cuando, los que la vista de la cola no muestra o fallaron, salvo los que ya están cerrados
+    		boolean revisarSinMarca = System.currentTimeMillis() - ultimaRevisionSinMarca >= INTERVALO_SIN_MARCA.toMillis();
+    		if (revisarSinMarca) ultimaRevisionSinMarca = System.currentTimeMillis();
+    		boolean cambios = avisos > 0;
+    		for (Map.Entry<String, List<String>> grupo : grupos.entrySet()) {
+    			Map<String, String> cola = sesionPrincipal.leerCola(perfiles.get(grupo.getKey()));
+    			List<String> cambiados = new ArrayList<>();
+    			for (String servicio : grupo.getValue()) {
+    				String clave = servicio.trim().toUpperCase();
+    				String marca = cola.get(clave);
+    				boolean fallido = !textos.containsKey(servicio) && !cerrados.contains(servicio);
+    				if (marca != null && !marca.equals(marcas.get(clave))
+    						|| revisarSinMarca && (marca == null && !cerrados.contains(servicio) || fallido)) {
+    					cambiados.add(servicio);
+    				}
+    			}
+    			marcas.putAll(cola);
+    			if (cambiados.isEmpty()) continue;
+    			
+    			Map<String, List<String[]>> nuevos = new ConcurrentHashMap<>();
+    			progreso.iniciar(cambiados.size(), controlador);
+    			try {
+    				revisarCola(perfiles.get(grupo.getKey()), cambiados, sesiones, controlador, nuevos);
+    			} finally {
+    				progreso.finalizar();
+    			}
+    			for (String servicio : cambiados) {
+    				avisos += alertas.avisarNuevosDias(resultados.get(servicio), nuevos.get(servicio));
+    				if (nuevos.containsKey(servicio)) {
+    					resultados.put(servicio, nuevos.get(servicio));
+    				} else if (cerrados.contains(servicio)) {
+    					// El servicio se cerró: ya no tiene días sin gestión
+    					resultados.remove(servicio);
+    				}
+    			}
+    			cambios = true;
+    		}
+    		
+    		if (cambios) {
+    			consolidarResultados(resultados);
+    			escribirResultadosEnExcel();
+    			System.out.println("[%s] Resultados actualizados (%d nuevos días sin gestión)."
+    					.formatted(LocalTime.now().withNano(0), avisos));
+    		}
+    	}
+    	
+    	try {
+    		estadisticas.guardar();
+    	} catch (IOException e) {
+    		System.err.println("No se pudo guardar el historial de tiempos: " + e.getMessage());
+    	}
+    }
+    
+    /**
+     * Calcula el momento en que termina la vigilancia según la hora fin configurada.
+     *
+     * @return Fecha y hora de fin, o null si la vigilancia no tiene hora fin.
+     */
+    private LocalDateTime finVigilancia() {
+    	if (vigilancia.horaFin == null || vigilancia.horaFin.isBlank()) return null;
+    	LocalDateTime fin = LocalDate.now().atTime(LocalTime.parse(vigilancia.horaFin.trim()));
+    	
+    	// Si la hora ya pasó, la vigilancia sigue hasta esa hora del día siguiente
+    	return fin.isAfter(LocalDateTime.now()) ? fin : fin.plusDays(1);
+    }
+    
+    /**
+     * Analiza las actividades de un servicio en el rango y calendario actuales.
+     *
+     * @param servicio El identificador del servicio.
+     * @param texto Texto de las actividades.
+     * @return Filas de backlog, o null si el texto no tiene gestiones reconocibles.
+     */
+    private List<String[]> analizar(String servicio, String texto) {
+    	try {
+    		return new AnalizadorGestiones(texto, fechaInicio, fechaFin, calendario).revisarBacklog(servicio);
+    	} catch (RuntimeException e) {
+    		return null;
+    	}
+    }
+    
+    /**
+     * Da formato legible a una duración (ej. "4m 05s").
+     *
+     * @param ms Duración en milisegundos.
+     * @return Duración formateada.
+     */
+    static String formatearDuracion(long ms) {
+    	long segundos = Math.round(ms / 1000.0);
+    	return segundos >= 60 ? "%dm %02ds".formatted(segundos / 60, segundos % 60) : segundos + "s";
+    }
+    
+    /**
+     * Obtiene el prefijo de tipo de un servicio (las letras iniciales, ej. "IN" para "IN123").
+     *
+     * @param servicio El identificador del servicio.
+     * @return Prefijo en mayúsculas, o cadena vacía si el servicio no empieza por letras.
+     */
+    private static String prefijo(String servicio) {
+    	Matcher matcher = PREFIJO_PATTERN.matcher(servicio.trim());
+    	return matcher.find() ? matcher.group().toUpperCase() : "";
+    }
+    
+    /**
+     * Obtiene los servicios que no aparecen en la vista de lista de su cola. Si la vista no muestra
+     * ninguno de ellos (ej. otra vista o un filtro distinto), no aporta información y no se devuelve ninguno.
+     *
+     * @param servicios Servicios de la cola.
+     * @param cola Vista de la cola leída con {@link SesionPortal#leerCola(PerfilPagina)}.
+     * @return Servicios que probablemente están cerrados.
+     */
+    private static List<String> faltantesEnCola(List<String> servicios, Map<String, String> cola) {
+    	List<String> faltantes = servicios.stream().filter(s -> !cola.containsKey(s.trim().toUpperCase())).toList();
+    	return faltantes.size() < servicios.size() ? faltantes : List.of();
+    }
+    
+    /**
+     * Agrupa los servicios según el perfil de página que les corresponde, conservando el orden
+     * de aparición. Los servicios cuyo prefijo no tiene perfil se agrupan bajo la clave vacía.
+     *
+     * @param lista Servicios a agrupar.
+     * @return Mapa ordenado con el prefijo como clave y sus servicios como valor.
+     */
+    private Map<String, List<String>> agruparPorPrefijo(List<String> lista) {
+    	Map<String, List<String>> grupos = new LinkedHashMap<>();
+    	for (String servicio : lista) {
+    		String clave = prefijo(servicio);
+    		if (!perfiles.containsKey(clave)) clave = "";
+    		grupos.computeIfAbsent(clave, k -> new ArrayList<>()).add(servicio);
+    	}
+    	return grupos;
+    }
+    
+    /**
+     * Revisa los servicios de una cola (incidentes, peticiones...) repartiéndolos entre las
+     * sesiones que permita el controlador de concurrencia.
+     *
+     * @param perfil Perfil de página de la cola a revisar.
+     * @param serviciosCola Servicios a revisar en la cola.
+     * @param sesiones Sesiones del portal, indexadas por hilo; se crean bajo demanda.
+     * @param controlador Controlador que decide cuántas sesiones trabajan y a qué ritmo.
+     * @param resultados Mapa donde se guardan las filas de backlog de cada servicio.
+     * @throws IllegalStateException si los selectores del perfil no coinciden con la página.
+     */
+    private void revisarCola(PerfilPagina perfil, List<String> serviciosCola, SesionPortal[] sesiones,
+    		ControladorConcurrencia controlador, Map<String, List<String[]>> resultados) {
+    	Queue<String> pendientes = new ConcurrentLinkedQueue<>(serviciosCola);
+    	Map<String, Integer> reintentos = new ConcurrentHashMap<>();
+    	
+    	ExecutorService hilos = Executors.newFixedThreadPool(sesiones.length);
+    	try {
+    		List<Future<?>> tareas = new ArrayList<>();
+    		for (int i = 0; i < sesiones.length; i++) {
+    			int indice = i;
+    			tareas.add(hilos.submit(() -> {
+    				trabajar(indice, perfil, pendientes, reintentos, sesiones, controlador, resultados);
+    				return null;
+    			}));
+    		}
+    		
+    		for (Future<?> tarea : tareas) {
+    			tarea.get();
+    		}
+    	} catch (ExecutionException e) {
+    		if (e.getCause() instanceof RuntimeException re) throw re;
+    		throw new IllegalStateException(e.getCause());
+    	} catch (InterruptedException e) {
+    		Thread.currentThread().interrupt();
+    	} finally {
+    		hilos.shutdownNow();
+    	}
+    }
+    
+    /**
+     * Bucle de trabajo de una sesión: toma servicios de la cola mientras el controlador se lo
+     * permita, extrae sus actividades y las analiza.
+     *
+     * @param indice Índice de la sesión (0 es la sesión principal).
+     * @param perfil Perfil de página de la cola a revisar.
+     * @param pendientes Servicios pendientes de revisar.
+     * @param reintentos Número de reintentos realizados por servicio.
+     * @param sesiones Sesiones del portal, indexadas por hilo.
+     * @param controlador Controlador de concurrencia.
+     * @param resultados Mapa donde se guardan las filas de backlog de cada servicio.
+     * @throws InterruptedException si el hilo es interrumpido.
+     */
+    private void trabajar(int indice, PerfilPagina perfil, Queue<String> pendientes, Map<String, Integer> reintentos,
+    		SesionPortal[] sesiones, ControladorConcurrencia controlador, Map<String, List<String[]>> resultados) throws InterruptedException {
+    	
+    	while (!detenido && controlador.esperarPermiso(indice, pendientes)) {
+    		String servicio = pendientes.poll();
+    		if (servicio == null) return;
+    		
+    		SesionPortal sesion;
+    		long inicioNavegacion = System.currentTimeMillis();
+    		try {
+    			boolean nueva = sesiones[indice] == null;
+    			sesion = obtenerSesion(indice, sesiones);
+    			if (sesion.abrirCola(perfil) || nueva) {
+    				progreso.registrarPaso(ProgresoRevision.PASO_NAVEGACION, System.currentTimeMillis() - inicioNavegacion);
+    			}
+    		} catch (WebDriverException e) {
+    			if (indice == 0) throw e;
+    			
+    			// Una sesión adicional que no logra arrancar no detiene la revisión
+    			System.err.println("No se pudo abrir la sesión adicional " + indice + ": " + e.getMessage());
+    			pendientes.add(servicio);
+    			return;
+    		}
+    		
+    		// Medimos solo la extracción, que es la parte que carga al portal
+    		long inicioEspera = System.currentTimeMillis();
+    		controlador.esperarTurno();
+    		long inicio = System.currentTimeMillis();
+    		progreso.registrarPaso(ProgresoRevision.PASO_ESPERA, inicio - inicioEspera);
+    		DatosServicio datos;
+    		try {
+    			datos = sesion.extraer(servicio);
+    		} catch (WebDriverException e) {
+    			controlador.registrarFallo();
+    			
+    			// Un fallo puntual del portal no descarta el servicio: se reintenta una vez
+    			if (reintentos.merge(servicio, 1, Integer::sum) <= MAX_REINTENTOS) {
+    				pendientes.add(servicio);
+    			} else {
+    				terminarServicio(servicio, ProgresoRevision.FALLIDO, List.of());
+    			}
+    			continue;
+    		}
+    		
+    		long extraccionMs = System.currentTimeMillis() - inicio;
+    		progreso.registrarPaso(ProgresoRevision.PASO_EXTRACCION, extraccionMs);
+    		
+    		if (!datos.ok || datos.esCerrado()) {
+    			// Si el servicio ya está cerrado (ej. el detalle no muestra la pestaña de actividades),
+    			// pasará al siguiente servicio sin afectar al controlador. Solo una página que no terminó
+    			// de cargar cuenta como fallo, y lo que costó se registra sin marcar el servicio como cerrado
+    			if (datos.tiempoAgotado) {
+    				controlador.registrarFallo();
+    			} else {
+    				controlador.registrarNeutro();
+    			}
+    			estadisticas.registrar(servicio, extraccionMs, 0, !datos.tiempoAgotado);
+    			textos.remove(servicio);
+    			if (!datos.tiempoAgotado) cerrados.add(servicio);
+    			terminarServicio(new ResultadoServicio(servicio, ProgresoRevision.CERRADO, List.of(),
+    					extraccionMs, 0, !datos.tiempoAgotado));
+    			continue;
+    		}
+    		controlador.registrarExito(extraccionMs);
+    		
+    		// En modo vigilancia guardamos el texto para volver a analizarlo sin tocar el portal
+    		if (vigilancia != null) {
+    			textos.put(servicio, datos.texto);
+    		}
+    		cerrados.remove(servicio);
+    		
+    		long inicioAnalisis = System.currentTimeMillis();
+    		String resultado = ProgresoRevision.TERMINADO;
+    		try {
+    			// Analizamos y extraemos los datos del back y las afectaciones
+    			AnalizadorGestiones ag = new AnalizadorGestiones(datos.texto, fechaInicio, fechaFin, calendario);
+    			resultados.put(servicio, ag.revisarBacklog(servicio));
+    		} catch (RuntimeException e) {
+    			// Si las actividades no tienen gestiones reconocibles, pasará al siguiente servicio
+    			resultado = ProgresoRevision.FALLIDO;
+    		} finally {
+    			long analisisMs = System.currentTimeMillis() - inicioAnalisis;
+    			estadisticas.registrar(servicio, extraccionMs, analisisMs, false);
+    			progreso.registrarPaso(ProgresoRevision.PASO_ANALISIS, analisisMs);
+    			terminarServicio(new ResultadoServicio(servicio, resultado, resultados.getOrDefault(servicio, List.of()),
+    					extraccionMs, analisisMs, false));
+    		}
+    	}
+    }
+    
+    /**
+     * Notifica que un servicio terminó de revisarse: al progreso y, si la hay, a la salida de resultados.
+     *
+     * @param servicio El identificador del servicio.
+     * @param resultado {@link ProgresoRevision#TERMINADO}, {@link ProgresoRevision#CERRADO} o {@link ProgresoRevision#FALLIDO}.
+     * @param filas Filas de backlog del servicio.
+     */
+    private void terminarServicio(String servicio, String resultado, List<String[]> filas) {
+    	terminarServicio(new ResultadoServicio(servicio, resultado, filas));
+    }
+    
+    /**
+     * Notifica que un servicio terminó de revisarse, con los tiempos medidos si los tiene.
+     *
+     * @param resultado Resultado del servicio.
+     */
+    private void terminarServicio(ResultadoServicio resultado) {
+    	progreso.terminarServicio(resultado.servicio, resultado.resultado);
+    	if (salidaResultados != null) {
+    		salidaResultados.publicar(resultado);
+    	}
+    }
+    
+    /**
+     * Devuelve la sesión asociada a un hilo, creándola e iniciando sesión si aún no existe.
+     * La primera sesión de cada grupo de pestañas abre un navegador nuevo; las demás abren una
+     * pestaña en el navegador de esa primera sesión, creándola si su hilo aún no lo hizo.
+     *
+     * @param indice Índice de la sesión.
+     * @param sesiones Sesiones del portal, indexadas por hilo.
+     * @return Sesión lista para navegar.
+     */
+    private SesionPortal obtenerSesion(int indice, SesionPortal[] sesiones) {
+    	SesionPortal sesion = sesiones[indice];
+    	if (sesion != null) return sesion;
+    	
+    	synchronized (sesiones) {
+    		if (sesiones[indice] == null) {
+    			int primera = indice - indice % pestanas;
+    			if (primera == indice) {
+    				sesion = new SesionPortal(fabricaDriver.get(), modoExtraccion, waitSeconds);
+    				sesion.setEnlaceDirecto(enlaceDirecto);
+    				sesion.iniciarSesion(url, user, passw);
+    			} else {
+    				sesion = obtenerSesion(primera, sesiones).abrirPestana(url, user, passw);
+    			}
+    			sesiones[indice] = sesion;
+    		}
+    		return sesiones[indice];
+    	}
+    }
 	
 	/**
      * Escribe los resultados extraídos en un archivo Excel ubicado junto al archivo JSON de entrada.
@@ -259,11 +890,23 @@ public class BacklogAutomation {
      * @throws IOException si ocurre un error al escribir el archivo.
      */
 	private void escribirResultadosEnExcel() throws IOException {
-        // Obtener la ruta de salida, cambiando la extensión a .xlsx
-        File jsonFile = new File(this.jsonFilePath);
-        String parentDirectory = jsonFile.getParent();
-        String excelOutputFile = Paths.get(parentDirectory, "resultado_backlog.xlsx").toString();
-        this.jsonFilePath = parentDirectory;
+        // Obtener la ruta de salida, junto al archivo JSON de entrada
+        String excelOutputFile = Paths.get(directorioSalida, "resultado_backlog.xlsx").toString();
+
+        // En modo delta leemos el resultado anterior antes de sobrescribirlo. Se lee una sola vez:
+        // en modo vigilancia el archivo se reescribe en cada revisión y el delta debe seguir
+        // comparando con el resultado que había al iniciar
+        List<String[]> delta = null;
+        if (modoDelta) {
+        	if (deltaBase == null) {
+        		deltaBase = ReporteDelta.leerAnterior(Paths.get(excelOutputFile), "Backlog");
+        	}
+        	delta = deltaBase.comparar(this.backlog, this.servicios);
+        	System.out.println("Delta: %d nuevos, %d resueltos, %d modificados".formatted(
+        			ReporteDelta.contar(delta, ReporteDelta.NUEVO),
+        			ReporteDelta.contar(delta, ReporteDelta.RESUELTO),
+        			ReporteDelta.contar(delta, ReporteDelta.MODIFICADO)));
+        }
 
         // try-with-resources para asegurar que todo se cierre
         try (
@@ -272,36 +915,20 @@ public class BacklogAutomation {
     		// Crea un flujo de salida
             FileOutputStream fileOut = new FileOutputStream(excelOutputFile)
         ) {
-			// Crea una nueva hoja
-            Sheet sheet = workbook.createSheet("Backlog");
-
             // Estilos de la cabecera
             Font headerFont = workbook.createFont();
             headerFont.setBold(true);
             CellStyle headerCellStyle = workbook.createCellStyle();
             headerCellStyle.setFont(headerFont);
 
-            // Crear la fila de la cabecera (Los nombres de columnas)
+            // Crear la hoja con todos los resultados (Los nombres de columnas en la cabecera)
             String[] headers = {"N° servicio", "Dia afectado", "Analista afectado", "Fecha ult. nota", "Ult. nota"};
-            Row headerRow = sheet.createRow(0);
-            for (int i = 0; i < headers.length; i++) {
-                Cell cell = headerRow.createCell(i);
-                cell.setCellValue(headers[i]);
-                cell.setCellStyle(headerCellStyle);
-            }
-
-            // Escribir las filas de datos
-            int rowNum = 1;
-            for (String[] record : this.backlog) {
-                Row row = sheet.createRow(rowNum++);
-                for (int i = 0; i < record.length; i++) {
-                    row.createCell(i).setCellValue(record[i]);
-                }
-            }
+            escribirHoja(workbook, "Backlog", headers, this.backlog, headerCellStyle);
 
-            // Ajustar el ancho de las columnas automáticamente
-            for (int i = 0; i < headers.length; i++) {
-                sheet.autoSizeColumn(i);
+            // Y, en modo delta, la hoja con los cambios respecto a la ejecución anterior
+            if (delta != null) {
+            	String[] headersDelta = {"Cambio", "N° servicio", "Dia afectado", "Analista afectado", "Fecha ult. nota", "Ult. nota"};
+            	escribirHoja(workbook, "Delta", headersDelta, delta, headerCellStyle);
             }
 
             // Escribir el libro de Excel al archivo
@@ -309,4 +936,39 @@ public class BacklogAutomation {
         }
     }
 
+    /**
+     * Crea una hoja en el libro con su cabecera y sus filas de datos.
+     *
+     * @param workbook Libro de Excel.
+     * @param nombre Nombre de la hoja.
+     * @param headers Nombres de las columnas.
+     * @param filas Filas de datos.
+     * @param headerCellStyle Estilo de la cabecera.
+     */
+    private static void escribirHoja(Workbook workbook, String nombre, String[] headers, List<String[]> filas, CellStyle headerCellStyle) {
+        Sheet sheet = workbook.createSheet(nombre);
+
+        // Crear la fila de la cabecera
+        Row headerRow = sheet.createRow(0);
+        for (int i = 0; i < headers.length; i++) {
+            Cell cell = headerRow.createCell(i);
+            cell.setCellValue(headers[i]);
+            cell.setCellStyle(headerCellStyle);
+        }
+
+        // Escribir las filas de datos
+        int rowNum = 1;
+        for (String[] record : filas) {
+            Row row = sheet.createRow(rowNum++);
+            for (int i = 0; i < record.length; i++) {
+                row.createCell(i).setCellValue(record[i]);
+            }
+        }
+
+        // Ajustar el ancho de las columnas automáticamente
+        for (int i = 0; i < headers.length; i++) {
+            sheet.autoSizeColumn(i);
+        }
+    }
+
 }
@@ -0,0 +1,323 @@
+package com.automation.backlog;
+
+import java.io.BufferedReader;
+import java.io.IOException;
+import java.io.Reader;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Paths;
+import java.text.Normalizer;
+import java.time.DayOfWeek;
+import java.time.LocalDate;
+import java.time.format.DateTimeFormatter;
+import java.time.temporal.TemporalAdjusters;
+import java.util.ArrayList;
+import java.util.BitSet;
+import java.util.EnumSet;
+import java.util.List;
+import java.util.Locale;
+import java.util.Set;
+import java.util.TreeSet;
+
+/**
+ * Calendario laboral precalculado para un rango de fechas.
+ *
+ * Los días laborables se guardan en un {@link BitSet} indexado por día época
+ * (<code>LocalDate.toEpochDay()</code>) relativo a la fecha de inicio del rango: el bit
+ * <code>i</code> corresponde al día <code>inicio + i</code>. Se construye una sola vez por
+ * ejecución y se comparte entre todos los servicios, de modo que la detección de días sin
+ * gestión se reduce a operaciones AND/ANDNOT sobre bits.
+ *
+ * <p>La regla general la definen los días de la semana laborables y los festivos; las excepciones
+ * del equipo configurado se aplican al final. Sin archivo de festivos se calculan los festivos
+ * nacionales de Colombia para cada año del rango (fechas fijas, Ley Emiliani y fechas móviles
+ * según la Pascua).
+ */
+public class CalendarioLaboral {
+
+	private final DateTimeFormatter DATE_FORMATTER = DateTimeFormatter.ofPattern("dd/MM/yy");
+
+	private final LocalDate inicio;
+	private final LocalDate fin;
+	private final long epochInicio;
+	private final BitSet laborables;
+
+	/**
+	 * Constructor privado; usar {@link #todosLosDias} o {@link #desdeConfig}.
+	 */
+	private CalendarioLaboral(LocalDate inicio, LocalDate fin) {
+		if (fin.isBefore(inicio)) {
+			throw new IllegalArgumentException("La fecha fin (" + fin + ") es anterior a la fecha inicio (" + inicio + ")");
+		}
+		this.inicio = inicio;
+		this.fin = fin;
+		this.epochInicio = inicio.toEpochDay();
+		this.laborables = new BitSet(getTotalDias());
+	}
+
+	/**
+	 * Crea un calendario en el que todos los días del rango son laborables.
+	 * Equivale al comportamiento sin calendario configurado.
+	 *
+	 * @param inicio Fecha de inicio del rango.
+	 * @param fin Fecha de fin del rango.
+	 * @return Calendario con todos los días marcados como laborables.
+	 */
+	public static CalendarioLaboral todosLosDias(LocalDate inicio, LocalDate fin) {
+		CalendarioLaboral calendario = new CalendarioLaboral(inicio, fin);
+		calendario.laborables.set(0, calendario.getTotalDias());
+		return calendario;
+	}
+
+	/**
+	 * Crea el calendario a partir de la configuración del usuario.
+	 *
+	 * @param config Configuración del calendario; si es null todos los días son laborables.
+	 * @param equipo Equipo cuyas excepciones se aplican (puede ser null).
+	 * @param inicio Fecha de inicio del rango.
+	 * @param fin Fecha de fin del rango.
+	 * @return Calendario precalculado para el rango.
+	 * @throws IOException si no se puede leer el archivo de festivos.
+	 */
+	public static CalendarioLaboral desdeConfig(Config.Calendario config, String equipo, LocalDate inicio, LocalDate fin) throws IOException {
+		if (config == null) {
+			return todosLosDias(inicio, fin);
+		}
+
+		CalendarioLaboral calendario = new CalendarioLaboral(inicio, fin);
+
+		// 1. Días de la semana laborables
+		Set<DayOfWeek> diasSemana = leerDiasSemana(config.diasLaborales);
+		for (LocalDate dia = inicio; !dia.isAfter(fin); dia = dia.plusDays(1)) {
+			if (diasSemana.contains(dia.getDayOfWeek())) {
+				calendario.laborables.set(calendario.indice(dia));
+			}
+		}
+
+		// 2. Festivos
+		calendario.marcar(calendario.leerFestivos(config.archivoFestivos), false);
+
+		// 3. Excepciones del equipo
+		if (equipo != null && config.excepciones != null) {
+			Config.Excepciones excepciones = config.excepciones.get(equipo);
+			if (excepciones != null) {
+				calendario.marcar(excepciones.noLaborables, false);
+				calendario.marcar(excepciones.laborables, true);
+			}
+		}
+
+		return calendario;
+	}
+
+	/**
+	 * Indica si el calendario cubre por completo el rango indicado.
+	 *
+	 * @param desde Fecha de inicio del rango.
+	 * @param hasta Fecha de fin del rango.
+	 * @return true si ambas fechas están dentro del calendario.
+	 */
+	public boolean cubre(LocalDate desde, LocalDate hasta) {
+		return !desde.isBefore(inicio) && !hasta.isAfter(fin);
+	}
+
+	/**
+	 * Indica si un día es laborable.
+	 *
+	 * @param dia Día a consultar (debe estar dentro del rango).
+	 * @return true si el día es laborable.
+	 */
+	public boolean esLaborable(LocalDate dia) {
+		int i = indice(dia);
+		return i >= 0 && i < getTotalDias() && laborables.get(i);
+	}
+
+	/**
+	 * Devuelve una copia del mapa de bits de días laborables.
+	 * La copia puede modificarse libremente sin afectar al calendario compartido.
+	 *
+	 * @return BitSet con un bit por día del rango.
+	 */
+	public BitSet copiaLaborables() {
+		return (BitSet) laborables.clone();
+	}
+
+	/**
+	 * Convierte una fecha en su índice dentro del mapa de bits.
+	 * Puede ser negativo o superar el total de días si la fecha está fuera del rango.
+	 *
+	 * @param dia Fecha a convertir.
+	 * @return Índice relativo a la fecha de inicio del calendario.
+	 */
+	public int indice(LocalDate dia) {
+		return (int) (dia.toEpochDay() - epochInicio);
+	}
+
+	/**
+	 * Convierte un índice del mapa de bits en la fecha correspondiente.
+	 *
+	 * @param indice Índice relativo a la fecha de inicio.
+	 * @return Fecha correspondiente.
+	 */
+	public LocalDate fecha(int indice) {
+		return LocalDate.ofEpochDay(epochInicio + indice);
+	}
+
+	/**
+	 * @return Número de días del rango (ambos extremos incluidos).
+	 */
+	public int getTotalDias() {
+		return (int) (fin.toEpochDay() - epochInicio) + 1;
+	}
+
+	/**
+	 * Marca como laborables (o no laborables) las fechas indicadas que caigan dentro del rango.
+	 *
+	 * @param fechas Fechas en formato "dd/MM/yy" (puede ser null).
+	 * @param laborable Valor a asignar.
+	 */
+	private void marcar(List<String> fechas, boolean laborable) {
+		if (fechas == null) return;
+		for (String fecha : fechas) {
+			int i = indice(LocalDate.parse(fecha.trim(), DATE_FORMATTER));
+			if (i >= 0 && i < getTotalDias()) {
+				laborables.set(i, laborable);
+			}
+		}
+	}
+
+	/**
+	 * Lee el archivo de festivos indicado o, si no se indica, calcula los de Colombia para los años del rango.
+	 * Si el archivo no incluye alguno de los años del rango, se avisa en la consola.
+	 *
+	 * @param ruta Ruta del archivo de festivos (puede ser null).
+	 * @return Lista de fechas en formato "dd/MM/yy".
+	 * @throws IOException si ocurre un error al leer el archivo.
+	 */
+	private List<String> leerFestivos(String ruta) throws IOException {
+		if (ruta == null || ruta.isBlank()) {
+			List<String> festivos = new ArrayList<>();
+			for (int anio = inicio.getYear(); anio <= fin.getYear(); anio++) {
+				festivosColombia(anio).forEach(dia -> festivos.add(dia.format(DATE_FORMATTER)));
+			}
+			return festivos;
+		}
+
+		List<String> festivos;
+		try (Reader reader = Files.newBufferedReader(Paths.get(ruta), StandardCharsets.UTF_8)) {
+			festivos = leerFechas(reader);
+		}
+		Set<Integer> anios = new TreeSet<>();
+		for (String festivo : festivos) {
+			anios.add(LocalDate.parse(festivo, DATE_FORMATTER).getYear());
+		}
+		for (int anio = inicio.getYear(); anio <= fin.getYear(); anio++) {
+			if (!anios.contains(anio)) {
+				System.err.println("El archivo de festivos no incluye el año " + anio + "; ese año no tendrá festivos.");
+			}
+		}
+		return festivos;
+	}
+
+	/**
+	 * Calcula los festivos nacionales de Colombia de un año: las fechas fijas, las que la Ley Emiliani
+	 * traslada al lunes siguiente y las que dependen de la Pascua.
+	 *
+	 * @param anio Año a calcular.
+	 * @return Festivos del año.
+	 */
+	static List<LocalDate> festivosColombia(int anio) {
+		List<LocalDate> festivos = new ArrayList<>();
+
+		// Fechas fijas
+		festivos.add(LocalDate.of(anio, 1, 1));
+		festivos.add(LocalDate.of(anio, 5, 1));
+		festivos.add(LocalDate.of(anio, 7, 20));
+		festivos.add(LocalDate.of(anio, 8, 7));
+		festivos.add(LocalDate.of(anio, 12, 8));
+		festivos.add(LocalDate.of(anio, 12, 25));
+
+		// Ley Emiliani: si no caen en lunes, se trasladan al lunes siguiente
+		int[][] emiliani = { { 1, 6 }, { 3, 19 }, { 6, 29 }, { 8, 15 }, { 10, 12 }, { 11, 1 }, { 11, 11 } };
+		for (int[] fecha : emiliani) {
+			festivos.add(alLunes(LocalDate.of(anio, fecha[0], fecha[1])));
+		}
+
+		// Fechas según la Pascua: Jueves y Viernes Santo, y Ascensión, Corpus Christi y Sagrado Corazón trasladados a lunes
+		LocalDate pascua = domingoDePascua(anio);
+		festivos.add(pascua.minusDays(3));
+		festivos.add(pascua.minusDays(2));
+		festivos.add(alLunes(pascua.plusDays(39)));
+		festivos.add(alLunes(pascua.plusDays(60)));
+		festivos.add(alLunes(pascua.plusDays(68)));
+		return festivos;
+	}
+
+	private static LocalDate alLunes(LocalDate dia) {
+		return dia.with(TemporalAdjusters.nextOrSame(DayOfWeek.MONDAY));
+	}
+
+	/**
+	 * Domingo de Pascua del calendario gregoriano (algoritmo anónimo de Meeus/Jones/Butcher).
+	 */
+	private static LocalDate domingoDePascua(int anio) {
+		int a = anio % 19;
+		int b = anio / 100;
+		int c = anio % 100;
+		int d = b / 4;
+		int e = b % 4;
+		int f = (b + 8) / 25;
+		int g = (b - f + 1) / 3;
+		int h = (19 * a + b - d - g + 15) % 30;
+		int i = c / 4;
+		int k = c % 4;
+		int l = (32 + 2 * e + 2 * i - h - k) % 7;
+		int m = (a + 11 * h + 22 * l) / 451;
+		int mes = (h + l - 7 * m + 114) / 31;
+		int dia = (h + l - 7 * m + 114) % 31 + 1;
+		return LocalDate.of(anio, mes, dia);
+	}
+
+	/**
+	 * Extrae la fecha de cada línea no vacía ni comentada; lo que sigue a la fecha se ignora.
+	 */
+	private static List<String> leerFechas(Reader reader) {
+		return new BufferedReader(reader).lines()
+				.map(String::trim)
+				.filter(linea -> !linea.isEmpty() && !linea.startsWith("#"))
+				.map(linea -> linea.split("\\s+", 2)[0])
+				.toList();
+	}
+
+	/**
+	 * Convierte los nombres de días configurados (en español o inglés) en días de la semana.
+	 *
+	 * @param nombres Nombres de los días (ej. "LUNES", "Miércoles", "FRIDAY"); null para lunes a viernes.
+	 * @return Conjunto de días de la semana laborables.
+	 * @throws IllegalArgumentException si algún nombre no corresponde a un día de la semana.
+	 */
+	private static Set<DayOfWeek> leerDiasSemana(List<String> nombres) {
+		if (nombres == null || nombres.isEmpty()) {
+			return EnumSet.range(DayOfWeek.MONDAY, DayOfWeek.FRIDAY);
+		}
+
+		Set<DayOfWeek> dias = EnumSet.noneOf(DayOfWeek.class);
+		for (String nombre : nombres) {
+			// Quitamos tildes para aceptar "MIÉRCOLES" y "MIERCOLES"
+			String normalizado = Normalizer.normalize(nombre.trim(), Normalizer.Form.NFD)
+					.replaceAll("\\p{M}", "")
+					.toUpperCase(Locale.ROOT);
+			dias.add(switch (normalizado) {
+				case "LUNES" -> DayOfWeek.MONDAY;
+				case "MARTES" -> DayOfWeek.TUESDAY;
+				case "MIERCOLES" -> DayOfWeek.WEDNESDAY;
+				case "JUEVES" -> DayOfWeek.THURSDAY;
+				case "VIERNES" -> DayOfWeek.FRIDAY;
+				case "SABADO" -> DayOfWeek.SATURDAY;
+				case "DOMINGO" -> DayOfWeek.SUNDAY;
+				case "MONDAY", "TUESDAY", "WEDNESDAY", "THURSDAY", "FRIDAY", "SATURDAY", "SUNDAY" -> DayOfWeek.valueOf(normalizado);
+				default -> throw new IllegalArgumentException("Día de la semana desconocido en 'diasLaborales': " + nombre);
+			});
+		}
+		return dias;
+	}
+}
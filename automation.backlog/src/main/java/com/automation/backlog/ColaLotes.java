@@ -0,0 +1,293 @@
+package com.automation.backlog;
+
+import java.io.IOException;
+import java.nio.file.AtomicMoveNotSupportedException;
+import java.nio.file.DirectoryStream;
+import java.nio.file.FileAlreadyExistsException;
+import java.nio.file.Files;
+import java.nio.file.NoSuchFileException;
+import java.nio.file.Path;
+import java.nio.file.StandardCopyOption;
+import java.nio.file.attribute.FileTime;
+import java.util.ArrayList;
+import java.util.List;
+
+import com.fasterxml.jackson.core.type.TypeReference;
+import com.fasterxml.jackson.databind.ObjectMapper;
+
+/**
+ * Cola de trabajo en disco compartida entre un coordinador y sus trabajadores.
+ *
+ * Todo el protocolo se basa en archivos dentro de un directorio, que puede ser local o una
+ * carpeta compartida en red, de modo que los trabajadores pueden correr en el mismo equipo o en otros:
+ * <pre>
+ * trabajo.json                         configuración de la revisión (sin la lista de servicios)
+ * pendientes/lote-0001.json            lote pendiente: lista JSON de servicios
+ * en_curso/lote-0001.json@trabajador   lote reclamado; su fecha de modificación es el arrendamiento
+ * terminados/lote-0001.json            lote terminado
+ * resultados/lote-0001@trabajador.jsonl  una línea {@link ResultadoServicio} por servicio revisado
+ * FIN                                  el coordinador terminó; los trabajadores pueden salir
+ * </pre>
+ *
+ * Un lote se reclama moviéndolo de forma atómica de <code>pendientes</code> a <code>en_curso</code>:
+ * si dos trabajadores intentan reclamar el mismo lote, solo uno lo consigue.
+ */
+public class ColaLotes {
+
+	public static final String ARCHIVO_TRABAJO = "trabajo.json";
+	public static final String ARCHIVO_FIN = "FIN";
+
+	private static final String SEPARADOR_TRABAJADOR = "@";
+
+	private final ObjectMapper mapper = new ObjectMapper();
+	private final Path directorio;
+	private final Path pendientes;
+	private final Path enCurso;
+	private final Path terminados;
+	private final Path resultados;
+
+	/**
+	 * Abre la cola en el directorio indicado, creando sus carpetas si no existen.
+	 *
+	 * @param directorio Directorio de la cola.
+	 * @throws IOException si no se pueden crear las carpetas.
+	 */
+	public ColaLotes(Path directorio) throws IOException {
+		this.directorio = directorio;
+		this.pendientes = Files.createDirectories(directorio.resolve("pendientes"));
+		this.enCurso = Files.createDirectories(directorio.resolve("en_curso"));
+		this.terminados = Files.createDirectories(directorio.resolve("terminados"));
+		this.resultados = Files.createDirectories(directorio.resolve("resultados"));
+	}
+
+	/**
+	 * Vacía la cola de una revisión anterior. Solo borra los archivos del protocolo.
+	 *
+	 * @throws IOException si no se puede borrar algún archivo.
+	 */
+	public void limpiar() throws IOException {
+		for (Path carpeta : List.of(pendientes, enCurso, terminados, resultados)) {
+			for (Path archivo : listar(carpeta)) {
+				Files.deleteIfExists(archivo);
+			}
+		}
+		Files.deleteIfExists(directorio.resolve(ARCHIVO_FIN));
+		Files.deleteIfExists(directorio.resolve(ARCHIVO_TRABAJO));
+	}
+
+	/**
+	 * Publica la configuración de la revisión para los trabajadores.
+	 *
+	 * @param config Configuración de la revisión.
+	 * @throws IOException si no se puede escribir el archivo.
+	 */
+	public void publicarTrabajo(Config config) throws IOException {
+		escribirAtomico(directorio.resolve(ARCHIVO_TRABAJO), mapper.writerWithDefaultPrettyPrinter().writeValueAsBytes(config));
+	}
+
+	/**
+	 * @return Ruta del archivo con la configuración de la revisión.
+	 */
+	public Path getArchivoTrabajo() {
+		return directorio.resolve(ARCHIVO_TRABAJO);
+	}
+
+	/**
+	 * Agrega un lote pendiente.
+	 *
+	 * @param nombre Nombre del lote (ej. "lote-0001.json").
+	 * @param servicios Servicios del lote.
+	 * @throws IOException si no se puede escribir el lote.
+	 */
+	public void agregarLote(String nombre, List<String> servicios) throws IOException {
+		escribirAtomico(pendientes.resolve(nombre), mapper.writeValueAsBytes(servicios));
+	}
+
+	/**
+	 * Reclama el primer lote pendiente que no haya reclamado otro trabajador.
+	 *
+	 * @param trabajador Identificador del trabajador.
+	 * @return Lote reclamado, o null si no hay lotes pendientes.
+	 * @throws IOException si no se puede leer el lote reclamado.
+	 */
+	public Lote reclamar(String trabajador) throws IOException {
+		for (Path pendiente : listar(pendientes)) {
+			String nombre = pendiente.getFileName().toString();
+			Path reclamado = enCurso.resolve(nombre + SEPARADOR_TRABAJADOR + trabajador);
+			try {
+				Files.move(pendiente, reclamado, StandardCopyOption.ATOMIC_MOVE);
+			} catch (NoSuchFileException | FileAlreadyExistsException e) {
+				// Otro trabajador lo reclamó primero
+				continue;
+			}
+			renovar(reclamado);
+			List<String> servicios = mapper.readValue(reclamado.toFile(), new TypeReference<List<String>>() {});
+			return new Lote(nombre, servicios, reclamado, resultados.resolve(nombre.replace(".json", "") + SEPARADOR_TRABAJADOR + trabajador + ".jsonl"));
+		}
+		return null;
+	}
+
+	/**
+	 * Renueva el arrendamiento de un lote en curso.
+	 *
+	 * @param archivoEnCurso Archivo del lote en curso.
+	 * @return false si el lote ya no pertenece al trabajador (fue reasignado).
+	 */
+	public boolean renovar(Path archivoEnCurso) {
+		try {
+			Files.setLastModifiedTime(archivoEnCurso, FileTime.fromMillis(System.currentTimeMillis()));
+			return true;
+		} catch (IOException e) {
+			return false;
+		}
+	}
+
+	/**
+	 * Marca un lote como terminado.
+	 *
+	 * @param lote Lote reclamado por el trabajador.
+	 * @return false si el lote ya no pertenecía al trabajador (fue reasignado).
+	 * @throws IOException si no se puede mover el archivo.
+	 */
+	public boolean terminar(Lote lote) throws IOException {
+		try {
+			Files.move(lote.archivo, terminados.resolve(lote.nombre), StandardCopyOption.ATOMIC_MOVE);
+			return true;
+		} catch (NoSuchFileException e) {
+			return false;
+		}
+	}
+
+	/**
+	 * Devuelve un lote en curso a la cola de pendientes, solo con los servicios que aún faltan.
+	 * Si no falta ninguno, el lote pasa directamente a terminados.
+	 *
+	 * @param archivoEnCurso Archivo del lote en curso.
+	 * @param faltantes Servicios del lote que aún no tienen resultado.
+	 * @return false si el lote ya no estaba en curso (el trabajador lo terminó o lo liberó).
+	 * @throws IOException si no se puede escribir el lote.
+	 */
+	public boolean devolver(Path archivoEnCurso, List<String> faltantes) throws IOException {
+		String nombre = nombreLote(archivoEnCurso);
+		Path temporal = archivoEnCurso.resolveSibling(nombre + ".devuelto");
+		try {
+			// Primero se retira el lote, para que un trabajador rezagado ya no pueda terminarlo
+			Files.move(archivoEnCurso, temporal, StandardCopyOption.ATOMIC_MOVE);
+		} catch (NoSuchFileException e) {
+			return false;
+		}
+
+		if (faltantes.isEmpty()) {
+			Files.move(temporal, terminados.resolve(nombre), StandardCopyOption.REPLACE_EXISTING);
+		} else {
+			Files.delete(temporal);
+			agregarLote(nombre, faltantes);
+		}
+		return true;
+	}
+
+	/**
+	 * @return Archivos de los lotes en curso.
+	 * @throws IOException si no se puede leer la carpeta.
+	 */
+	public List<Path> lotesEnCurso() throws IOException {
+		List<Path> lotes = new ArrayList<>();
+		for (Path archivo : listar(enCurso)) {
+			if (archivo.getFileName().toString().contains(SEPARADOR_TRABAJADOR)) lotes.add(archivo);
+		}
+		return lotes;
+	}
+
+	/**
+	 * Lee los servicios de un lote.
+	 *
+	 * @param archivo Archivo del lote.
+	 * @return Servicios del lote.
+	 * @throws IOException si no se puede leer el lote.
+	 */
+	public List<String> leerLote(Path archivo) throws IOException {
+		return mapper.readValue(archivo.toFile(), new TypeReference<List<String>>() {});
+	}
+
+	/**
+	 * @return Archivos de resultados publicados por los trabajadores.
+	 * @throws IOException si no se puede leer la carpeta.
+	 */
+	public List<Path> archivosResultados() throws IOException {
+		return listar(resultados);
+	}
+
+	/**
+	 * @return true si no quedan lotes pendientes ni en curso.
+	 * @throws IOException si no se pueden leer las carpetas.
+	 */
+	public boolean estaVacia() throws IOException {
+		return listar(pendientes).isEmpty() && listar(enCurso).isEmpty();
+	}
+
+	/**
+	 * Indica a los trabajadores que la revisión terminó.
+	 *
+	 * @throws IOException si no se puede crear el archivo.
+	 */
+	public void marcarFin() throws IOException {
+		Files.write(directorio.resolve(ARCHIVO_FIN), new byte[0]);
+	}
+
+	/**
+	 * @return true si el coordinador marcó el fin de la revisión.
+	 */
+	public boolean hayFin() {
+		return Files.exists(directorio.resolve(ARCHIVO_FIN));
+	}
+
+	private static String nombreLote(Path archivoEnCurso) {
+		String nombre = archivoEnCurso.getFileName().toString();
+		return nombre.substring(0, nombre.indexOf(SEPARADOR_TRABAJADOR));
+	}
+
+	private static List<Path> listar(Path carpeta) throws IOException {
+		List<Path> archivos = new ArrayList<>();
+		try (DirectoryStream<Path> stream = Files.newDirectoryStream(carpeta)) {
+			for (Path archivo : stream) {
+				if (!archivo.getFileName().toString().endsWith(".tmp")) archivos.add(archivo);
+			}
+		}
+		archivos.sort(null);
+		return archivos;
+	}
+
+	private static void escribirAtomico(Path archivo, byte[] contenido) throws IOException {
+		Path temporal = archivo.resolveSibling(archivo.getFileName() + ".tmp");
+		Files.write(temporal, contenido);
+		try {
+			Files.move(temporal, archivo, StandardCopyOption.REPLACE_EXISTING, StandardCopyOption.ATOMIC_MOVE);
+		} catch (AtomicMoveNotSupportedException e) {
+			Files.move(temporal, archivo, StandardCopyOption.REPLACE_EXISTING);
+		}
+	}
+
+	/**
+	 * Lote reclamado por un trabajador.
+	 */
+	public static class Lote {
+		/** Nombre del lote (ej. "lote-0001.json"). */
+		public final String nombre;
+
+		/** Servicios del lote. */
+		public final List<String> servicios;
+
+		/** Archivo del lote en la carpeta en_curso; su fecha de modificación es el arrendamiento. */
+		public final Path archivo;
+
+		/** Archivo donde el trabajador publica los resultados del lote. */
+		public final Path archivoResultados;
+
+		private Lote(String nombre, List<String> servicios, Path archivo, Path archivoResultados) {
+			this.nombre = nombre;
+			this.servicios = servicios;
+			this.archivo = archivo;
+			this.archivoResultados = archivoResultados;
+		}
+	}
+}
@@ -1,6 +1,7 @@
 package com.automation.backlog;
 
 import java.util.List;
+import java.util.Map;
 
 /**
  * Clase de configuración que representa los datos cargados desde el archivo `config.json`.
@@ -40,4 +41,108 @@ public class Config {
 
     /** Lista de identificadores de servicios a revisar (ej: "IN-001", "PT-002"). */
     public List<String> servicios;
+
+    /**
+     * Modo de extracción de actividades (opcional):
+     * "dom" (por defecto) interactúa paso a paso con la página;
+     * "js" usa un único script asíncrono por servicio.
+     * "cdp" lee las actividades de las respuestas del portal capturadas con Chrome DevTools.
+     */
+    public String modoExtraccion;
+
+    /**
+     * Número máximo de sesiones simultáneas en el portal (opcional, por defecto 1).
+     * El número real de sesiones activas lo ajusta la aplicación según la respuesta del portal.
+     */
+    public Integer maxSesiones;
+
+    /**
+     * Número de pestañas por navegador (opcional, por defecto 1). Cada pestaña revisa un servicio
+     * mientras las demás cargan, compartiendo la sesión iniciada y la memoria del navegador.
+     * Solo se usa con modoExtraccion "dom".
+     */
+    public Integer pestanas;
+
+    /** Pausa mínima entre peticiones al portal, en milisegundos (opcional, por defecto 0). */
+    public Long pausaMinimaMs;
+
+    /**
+     * Si es true, abre el detalle de cada servicio por el enlace directo de su perfil de página,
+     * cuando lo define, en lugar del formulario de búsqueda (opcional, por defecto false).
+     * No se usa con modoExtraccion "js".
+     */
+    public Boolean enlaceDirecto;
+
+    /**
+     * Calendario laboral usado para detectar días sin gestión (opcional).
+     * Si no se define, todos los días del rango se consideran laborables.
+     */
+    public Calendario calendario;
+
+    /** Equipo al que pertenecen los servicios; selecciona las excepciones del calendario (opcional). */
+    public String equipo;
+
+    /**
+     * Si es true, compara con el resultado anterior y agrega la hoja "Delta" con las filas
+     * nuevas, resueltas y modificadas (opcional, por defecto false).
+     */
+    public Boolean modoDelta;
+
+    /**
+     * Modo vigilancia (opcional): tras la revisión completa, mantiene la sesión abierta y vuelve
+     * a revisar solo los servicios que cambiaron en la cola.
+     */
+    public Vigilancia vigilancia;
+
+    /**
+     * Configuración del calendario laboral.
+     *
+     * Ejemplo:
+     * <pre>
+     * "calendario": {
+     *   "diasLaborales": ["LUNES", "MARTES", "MIERCOLES", "JUEVES", "VIERNES"],
+     *   "archivoFestivos": "C:\\ruta\\festivos.txt",
+     *   "excepciones": {
+     *     "Soporte N2": { "laborables": ["07/06/25"], "noLaborables": ["24/12/25"] }
+     *   }
+     * }
+     * </pre>
+     */
+    public static class Calendario {
+    	/** Días de la semana laborables (por defecto de lunes a viernes). */
+    	public List<String> diasLaborales;
+
+    	/** Ruta a un archivo de festivos, una fecha "dd/MM/yy" por línea (por defecto se calculan los festivos de Colombia). */
+    	public String archivoFestivos;
+
+    	/** Excepciones por equipo: días que se trabajan o se descansan fuera de la regla general. */
+    	public Map<String, Excepciones> excepciones;
+    }
+
+    /**
+     * Configuración del modo vigilancia.
+     *
+     * Ejemplo:
+     * <pre>
+     * "vigilancia": { "intervaloSegundos": 300, "horaFin": "18:00" }
+     * </pre>
+     */
+    public static class Vigilancia {
+    	/** Segundos entre dos consultas de la cola (por defecto 300). */
+    	public Integer intervaloSegundos;
+
+    	/** Hora "HH:mm" a la que termina la vigilancia; si no se indica, sigue hasta cerrar la aplicación. */
+    	public String horaFin;
+    }
+
+    /**
+     * Días que un equipo trabaja o descansa fuera de la regla general del calendario.
+     */
+    public static class Excepciones {
+    	/** Fechas "dd/MM/yy" que se consideran laborables aunque sean fin de semana o festivo. */
+    	public List<String> laborables;
+
+    	/** Fechas "dd/MM/yy" que no se consideran laborables. */
+    	public List<String> noLaborables;
+    }
 }
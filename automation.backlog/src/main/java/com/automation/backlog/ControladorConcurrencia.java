@@ -0,0 +1,175 @@
+package com.automation.backlog;
+
+import java.util.Queue;
+
+/**
+ * Controlador adaptativo de concurrencia de tipo AIMD (aumento aditivo, disminución multiplicativa)
+ * que protege al portal de la mesa de servicio.
+ *
+ * Mide la latencia de cada extracción y sus errores, y con ello ajusta dos parámetros:
+ * <ul>
+ *   <li>El número de sesiones activas: sube de a una sesión por cada ventana de extracciones
+ *       sanas (+1/limite por respuesta) y se reduce a la mitad ante un error o una respuesta lenta.</li>
+ *   <li>La pausa mínima entre peticiones: baja poco a poco con respuestas sanas y se duplica
+ *       ante un error o una respuesta lenta.</li>
+ * </ul>
+ *
+ * Una respuesta se considera lenta cuando supera {@value #FACTOR_LENTITUD} veces la latencia de
+ * referencia, que es la media móvil exponencial de las respuestas recibidas. Tras una reducción se
+ * ignoran las señales de las peticiones que ya estaban en curso, para no reducir varias veces
+ * por el mismo episodio. El número de sesiones nunca supera el techo configurado.
+ */
+public class ControladorConcurrencia {
+
+	private static final double FACTOR_LENTITUD = 2.0;
+	private static final double PESO_EWMA = 0.2;
+	private static final int MUESTRAS_MINIMAS = 3;
+	private static final long PAUSA_TRAS_ERROR_MS = 500;
+	private static final long PASO_PAUSA_MS = 100;
+	private static final long PAUSA_MAXIMA_MS = 30_000;
+
+	private final int techo;
+	private final long pausaMinimaMs;
+
+	private double limite;
+	private long pausaMs;
+	private double latenciaReferenciaMs;
+	private int muestras;
+	private int respuestasIgnoradas;
+	private int enCurso;
+	private long proximoTurno;
+
+	/**
+	 * Constructor del controlador. Empieza con una sola sesión y la pausa mínima.
+	 *
+	 * @param techo Número máximo de sesiones simultáneas permitido (al menos 1).
+	 * @param pausaMinimaMs Pausa mínima entre el inicio de dos peticiones, en milisegundos.
+	 */
+	public ControladorConcurrencia(int techo, long pausaMinimaMs) {
+		this.techo = Math.max(1, techo);
+		this.pausaMinimaMs = Math.max(0, pausaMinimaMs);
+		this.limite = 1;
+		this.pausaMs = this.pausaMinimaMs;
+	}
+
+	/**
+	 * Espera hasta que la sesión indicada pueda trabajar según el límite actual.
+	 *
+	 * @param indiceSesion Índice de la sesión (0 es la sesión principal).
+	 * @param pendientes Cola de trabajo; si se vacía la espera termina.
+	 * @return true si la sesión puede tomar trabajo; false si ya no queda trabajo pendiente.
+	 * @throws InterruptedException si el hilo es interrumpido durante la espera.
+	 */
+	public synchronized boolean esperarPermiso(int indiceSesion, Queue<?> pendientes) throws InterruptedException {
+		while (indiceSesion >= getSesionesPermitidas()) {
+			if (pendientes.isEmpty()) return false;
+			wait(500);
+		}
+		return !pendientes.isEmpty();
+	}
+
+	/**
+	 * Espera a que se cumpla la pausa mínima entre peticiones y registra el inicio de una nueva.
+	 *
+	 * @throws InterruptedException si el hilo es interrumpido durante la espera.
+	 */
+	public void esperarTurno() throws InterruptedException {
+		long espera;
+		synchronized (this) {
+			long ahora = System.currentTimeMillis();
+			long turno = Math.max(ahora, proximoTurno);
+			proximoTurno = turno + pausaMs;
+			espera = turno - ahora;
+			enCurso++;
+		}
+		if (espera > 0) {
+			Thread.sleep(espera);
+		}
+	}
+
+	/**
+	 * Registra una extracción correcta y su latencia.
+	 *
+	 * @param latenciaMs Duración de la extracción en milisegundos.
+	 */
+	public synchronized void registrarExito(long latenciaMs) {
+		enCurso--;
+		boolean lenta = muestras >= MUESTRAS_MINIMAS && latenciaMs > FACTOR_LENTITUD * latenciaReferenciaMs;
+
+		// La referencia se actualiza después de evaluar la respuesta: un portal que se vuelve
+		// lento de forma sostenida provoca unas pocas reducciones y luego pasa a ser la nueva referencia
+		latenciaReferenciaMs = muestras == 0 ? latenciaMs : (1 - PESO_EWMA) * latenciaReferenciaMs + PESO_EWMA * latenciaMs;
+		muestras++;
+
+		if (lenta) {
+			reducir();
+			return;
+		}
+
+		if (respuestasIgnoradas > 0) {
+			respuestasIgnoradas--;
+			return;
+		}
+		limite = Math.min(techo, limite + 1.0 / limite);
+		pausaMs = Math.max(pausaMinimaMs, pausaMs - PASO_PAUSA_MS);
+		notifyAll();
+	}
+
+	/**
+	 * Registra una extracción fallida (error del portal o tiempo de espera agotado).
+	 */
+	public synchronized void registrarFallo() {
+		enCurso--;
+		reducir();
+	}
+
+	/**
+	 * Registra una extracción que terminó sin información útil para el control
+	 * (ej. servicio cerrado), sin modificar el límite ni la pausa.
+	 */
+	public synchronized void registrarNeutro() {
+		enCurso--;
+	}
+
+	/**
+	 * Disminución multiplicativa: reduce el límite a la mitad y duplica la pausa, salvo que
+	 * la señal provenga de peticiones que ya estaban en curso durante la reducción anterior.
+	 */
+	private void reducir() {
+		if (respuestasIgnoradas > 0) {
+			respuestasIgnoradas--;
+			return;
+		}
+		limite = Math.max(1, limite / 2);
+		pausaMs = Math.min(PAUSA_MAXIMA_MS, Math.max(PAUSA_TRAS_ERROR_MS, pausaMs * 2));
+		respuestasIgnoradas = enCurso;
+	}
+
+	/**
+	 * @return Número de sesiones que pueden trabajar simultáneamente en este momento.
+	 */
+	public synchronized int getSesionesPermitidas() {
+		return (int) Math.floor(limite);
+	}
+
+	/**
+	 * @return Pausa actual entre peticiones, en milisegundos.
+	 */
+	public synchronized long getPausaMs() {
+		return pausaMs;
+	}
+
+	/**
+	 * @return Latencia de referencia actual (media móvil de las respuestas), en milisegundos.
+	 */
+	public synchronized long getLatenciaReferenciaMs() {
+		return Math.round(latenciaReferenciaMs);
+	}
+
+	/**
+	 * @return Número máximo de sesiones configurado.
+	 */
+	public int getTecho() {
+		return techo;
+	}
+}
@@ -0,0 +1,236 @@
+package com.automation.backlog;
+
+import java.io.File;
+import java.io.IOException;
+import java.io.RandomAccessFile;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.NoSuchFileException;
+import java.nio.file.Path;
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+
+import com.fasterxml.jackson.core.JsonProcessingException;
+import com.fasterxml.jackson.databind.ObjectMapper;
+
+/**
+ * Coordinador del modo coordinador/trabajador: reparte los servicios de la configuración en lotes
+ * a través de una {@link ColaLotes}, vigila los arrendamientos de los trabajadores y une los
+ * resultados que estos transmiten en el archivo Excel final.
+ *
+ * <p>Los lotes se forman con los servicios ordenados de mayor a menor coste según el historial de
+ * tiempos, así los más pesados se reparten primero. Un lote cuyo arrendamiento no se renueva durante
+ * {@value #ARRENDAMIENTO_SEGUNDOS} segundos se devuelve a la cola, solo con los servicios que aún no
+ * tienen resultado. El vencimiento se mide con el reloj del coordinador (se observa cuándo cambia la
+ * fecha de modificación del lote), por lo que no importa si los relojes de los equipos difieren.
+ *
+ * <p>Los trabajadores no reciben las credenciales del portal: cada uno usa las suyas. Los tiempos
+ * que publican con cada resultado se suman al historial de tiempos del coordinador.
+ */
+public class CoordinadorLotes {
+
+	/** Nombre de la carpeta de la cola, ubicada junto al archivo de configuración. */
+	public static final String NOMBRE_DIRECTORIO = "cola_trabajo";
+
+	/** Tiempo sin renovaciones tras el cual un lote se reasigna. */
+	public static final int ARRENDAMIENTO_SEGUNDOS = 6 * TrabajadorLotes.RENOVACION_SEGUNDOS;
+
+	private static final int TAMANO_LOTE = 5;
+	private static final long INTERVALO_REVISION_MS = 2_000;
+
+	private final ObjectMapper mapper = new ObjectMapper();
+	private final Config config;
+	private final String jsonPath;
+	private final ColaLotes cola;
+	private final ProgresoRevision progreso;
+	private final EstadisticasServicios estadisticas;
+
+	private final Map<String, ResultadoServicio> resultados = new HashMap<>();
+	private final Map<Path, Long> posicionesLeidas = new HashMap<>();
+	private final Map<Path, long[]> arrendamientos = new HashMap<>();
+
+	/**
+	 * Constructor de CoordinadorLotes.
+	 *
+	 * @param config Configuración de la revisión.
+	 * @param jsonPath Ruta del archivo de configuración; la cola y el Excel se crean junto a él.
+	 * @throws IOException si no se puede crear la cola.
+	 */
+	public CoordinadorLotes(Config config, String jsonPath) throws IOException {
+		this.config = config;
+		this.jsonPath = jsonPath;
+		String directorio = new File(jsonPath).getParent();
+		this.cola = new ColaLotes(Path.of(directorio, NOMBRE_DIRECTORIO));
+		this.progreso = new ProgresoRevision()
+				.agregarOyente(new ProgresoConsola())
+				.agregarOyente(new ProgresoArchivo(Path.of(directorio, ProgresoArchivo.NOMBRE_ARCHIVO)));
+		this.estadisticas = EstadisticasServicios.cargar(Path.of(directorio, EstadisticasServicios.NOMBRE_ARCHIVO));
+	}
+
+	/**
+	 * @return Directorio de la cola que deben usar los trabajadores.
+	 */
+	public Path getDirectorioCola() {
+		return cola.getArchivoTrabajo().getParent();
+	}
+
+	/**
+	 * Reparte los servicios, espera a que los trabajadores terminen y exporta el resultado.
+	 *
+	 * @return Mensaje de resultado indicando éxito o error.
+	 * @throws IOException si no se puede escribir o leer la cola.
+	 * @throws InterruptedException si el hilo es interrumpido durante la espera.
+	 */
+	public String ejecutar() throws IOException, InterruptedException {
+		cola.limpiar();
+
+		// Los trabajadores reciben la configuración sin la lista de servicios, sin los modos
+		// que solo tienen sentido en el coordinador y sin credenciales: la carpeta puede ser compartida
+		Config trabajo = mapper.readValue(mapper.writeValueAsBytes(config), Config.class);
+		trabajo.servicios = List.of();
+		trabajo.vigilancia = null;
+		trabajo.modoDelta = null;
+		trabajo.user = null;
+		trabajo.passw = null;
+		cola.publicarTrabajo(trabajo);
+
+		List<String> ordenados = estadisticas.ordenar(config.servicios);
+		int numeroLote = 0;
+		for (int i = 0; i < ordenados.size(); i += TAMANO_LOTE) {
+			cola.agregarLote("lote-%04d.json".formatted(++numeroLote),
+					new ArrayList<>(ordenados.subList(i, Math.min(ordenados.size(), i + TAMANO_LOTE))));
+		}
+		System.out.println("%d servicios repartidos en %d lotes. Inicie los trabajadores con: --trabajador \"%s\""
+				.formatted(ordenados.size(), numeroLote, getDirectorioCola()));
+
+		progreso.iniciar(ordenados.size(), null);
+		try {
+			while (!cola.estaVacia()) {
+				leerResultados();
+				reasignarVencidos();
+				Thread.sleep(INTERVALO_REVISION_MS);
+			}
+			leerResultados();
+		} finally {
+			progreso.finalizar();
+			cola.marcarFin();
+			try {
+				estadisticas.guardar();
+			} catch (IOException e) {
+				System.err.println("No se pudo guardar el historial de tiempos: " + e.getMessage());
+			}
+		}
+
+		Map<String, List<String[]>> filas = new HashMap<>();
+		for (ResultadoServicio resultado : resultados.values()) {
+			filas.put(resultado.servicio, resultado.filas);
+		}
+		return new BacklogAutomation(null, config, jsonPath).exportarResultados(filas);
+	}
+
+	/**
+	 * Lee las líneas nuevas de los archivos de resultados de los trabajadores. Solo se procesan
+	 * líneas completas; una línea a medio escribir se lee en la siguiente revisión.
+	 */
+	private void leerResultados() throws IOException {
+		for (Path archivo : cola.archivosResultados()) {
+			long posicion = posicionesLeidas.getOrDefault(archivo, 0L);
+			if (Files.size(archivo) <= posicion) continue;
+
+			byte[] nuevos;
+			try (RandomAccessFile lector = new RandomAccessFile(archivo.toFile(), "r")) {
+				lector.seek(posicion);
+				nuevos = new byte[(int) (lector.length() - posicion)];
+				lector.readFully(nuevos);
+			}
+
+			int finUltimaLinea = -1;
+			for (int i = nuevos.length - 1; i >= 0; i--) {
+				if (nuevos[i] == '\n') {
+					finUltimaLinea = i;
+					break;
+				}
+			}
+			if (finUltimaLinea < 0) continue;
+
+			String texto = new String(nuevos, 0, finUltimaLinea + 1, StandardCharsets.UTF_8);
+			for (String linea : texto.split("\\R")) {
+				if (!linea.isBlank()) registrar(linea);
+			}
+			posicionesLeidas.put(archivo, posicion + finUltimaLinea + 1);
+		}
+	}
+
+	/**
+	 * Registra el resultado de un servicio. Un resultado correcto reemplaza a uno fallido
+	 * (ej. el servicio se reintentó en otro trabajador tras una reasignación).
+	 */
+	private void registrar(String linea) {
+		ResultadoServicio resultado;
+		try {
+			resultado = mapper.readValue(linea, ResultadoServicio.class);
+		} catch (JsonProcessingException e) {
+			System.err.println("Línea de resultados inválida: " + linea);
+			return;
+		}
+
+		if (resultado.extraccionMs != null) {
+			estadisticas.registrar(resultado.servicio, resultado.extraccionMs,
+					resultado.analisisMs == null ? 0 : resultado.analisisMs, resultado.cerrado);
+		}
+
+		ResultadoServicio anterior = resultados.get(resultado.servicio);
+		if (anterior == null) {
+			progreso.terminarServicio(resultado.servicio, resultado.resultado);
+		}
+		if (anterior == null || ProgresoRevision.FALLIDO.equals(anterior.resultado)) {
+			resultados.put(resultado.servicio, resultado);
+		}
+	}
+
+	/**
+	 * Devuelve a la cola los lotes cuyo arrendamiento no se ha renovado a tiempo.
+	 */
+	private void reasignarVencidos() throws IOException {
+		long ahora = System.currentTimeMillis();
+		List<Path> enCurso = cola.lotesEnCurso();
+		arrendamientos.keySet().retainAll(enCurso);
+
+		for (Path lote : enCurso) {
+			long modificado;
+			try {
+				modificado = Files.getLastModifiedTime(lote).toMillis();
+			} catch (IOException e) {
+				continue; // El trabajador lo terminó mientras tanto
+			}
+
+			// [fecha de modificación observada, momento en que la observó el coordinador]
+			long[] arrendamiento = arrendamientos.get(lote);
+			if (arrendamiento == null || arrendamiento[0] != modificado) {
+				arrendamientos.put(lote, new long[] { modificado, ahora });
+				continue;
+			}
+			if (ahora - arrendamiento[1] < ARRENDAMIENTO_SEGUNDOS * 1000L) continue;
+
+			List<String> servicios;
+			try {
+				servicios = cola.leerLote(lote);
+			} catch (NoSuchFileException e) {
+				continue; // El trabajador lo terminó mientras tanto
+			}
+
+			List<String> faltantes = new ArrayList<>();
+			for (String servicio : servicios) {
+				ResultadoServicio resultado = resultados.get(servicio);
+				if (resultado == null || ProgresoRevision.FALLIDO.equals(resultado.resultado)) faltantes.add(servicio);
+			}
+			if (cola.devolver(lote, faltantes)) {
+				System.err.println("\nEl lote " + lote.getFileName() + " no se renovó a tiempo; se reasigna con "
+						+ faltantes.size() + " servicios pendientes.");
+			}
+			arrendamientos.remove(lote);
+		}
+	}
+}
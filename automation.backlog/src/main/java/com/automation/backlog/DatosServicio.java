@@ -0,0 +1,58 @@
+package com.automation.backlog;
+
+/**
+ * Datos de un servicio devueltos por el script de extracción en una sola respuesta JSON.
+ *
+ * Es deserializada mediante Jackson (`ObjectMapper`) a partir del resultado del script
+ * <code>extraccion_actividades.js</code>.
+ *
+ * Ejemplo de estructura esperada:
+ * <pre>
+ * {
+ *   "ok": true,
+ *   "texto": "12/07/25 14:30:00 Nombre Apellido (Usuario): Nota de gestión...",
+ *   "estado": "En curso",
+ *   "asignado": "Nombre Apellido"
+ * }
+ * </pre>
+ */
+public class DatosServicio {
+	/** Indica si se encontraron las actividades del servicio. */
+	public boolean ok;
+
+	/** Texto crudo (textContent) de las actividades del servicio. */
+	public String texto;
+
+	/** Estado del servicio tal como aparece en el formulario de detalle. */
+	public String estado;
+
+	/** Analista o grupo asignado al servicio. */
+	public String asignado;
+
+	/**
+	 * Indica que la página no terminó de cargar a tiempo: la pestaña de actividades se abrió pero
+	 * su contenido no apareció (ej. el portal está sobrecargado). Cuenta como fallo para el
+	 * controlador de concurrencia.
+	 */
+	public boolean tiempoAgotado;
+
+	/**
+	 * Indica que el detalle no mostró la pestaña de actividades en el tiempo de espera. Es lo
+	 * habitual con un servicio cerrado, por lo que no cuenta como fallo del portal.
+	 */
+	public boolean sinPestana;
+
+	/** Motivo por el que no se pudieron obtener las actividades, si aplica. */
+	public String error;
+
+	/**
+	 * Indica si el estado del servicio corresponde a un servicio cerrado.
+	 *
+	 * @return true si el estado empieza por "Cerrad" o "Closed".
+	 */
+	public boolean esCerrado() {
+		if (estado == null) return false;
+		String e = estado.trim().toLowerCase();
+		return e.startsWith("cerrad") || e.startsWith("closed");
+	}
+}
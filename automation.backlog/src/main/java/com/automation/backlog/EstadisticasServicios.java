@@ -0,0 +1,205 @@
+package com.automation.backlog;
+
+import java.io.IOException;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.StandardCopyOption;
+import java.time.LocalDateTime;
+import java.util.ArrayList;
+import java.util.Comparator;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.PriorityQueue;
+import java.util.Set;
+import java.util.TreeMap;
+
+import com.fasterxml.jackson.core.type.TypeReference;
+import com.fasterxml.jackson.databind.ObjectMapper;
+
+/**
+ * Almacén local de tiempos históricos por servicio, usado para planificar las ejecuciones.
+ *
+ * Guarda, en un archivo JSON junto al <code>config.json</code>, cuánto tardó la extracción y el
+ * análisis de cada servicio y si estaba cerrado en la última revisión. Con esos datos las
+ * ejecuciones siguientes ordenan el trabajo de mayor a menor coste (LPT) y estiman la duración
+ * total (makespan) de la revisión. Un servicio cerrado se estima con lo que costó registrarlo así
+ * (en el modo "dom" suele ser la espera completa). El historial por sí solo no relega un servicio
+ * al final; solo lo hace una señal actual y barata, como no aparecer en la vista de la cola.
+ *
+ * <p>Los tiempos se suavizan con una media móvil para que una ejecución atípica no desordene
+ * la planificación. Los servicios sin historial se estiman con la mediana de los servicios abiertos
+ * conocidos, calculada una vez por planificación.
+ */
+public class EstadisticasServicios {
+
+	/** Nombre del archivo de estadísticas, ubicado junto al archivo de configuración. */
+	public static final String NOMBRE_ARCHIVO = "estadisticas_backlog.json";
+
+	private static final long ESTIMACION_POR_DEFECTO_MS = 15_000;
+	private static final double PESO_NUEVA_MUESTRA = 0.5;
+
+	private final ObjectMapper mapper = new ObjectMapper();
+	private final Path archivo;
+	private final Map<String, Registro> registros;
+
+	private EstadisticasServicios(Path archivo, Map<String, Registro> registros) {
+		this.archivo = archivo;
+		this.registros = registros;
+	}
+
+	/**
+	 * Carga las estadísticas del archivo indicado. Si no existe o no se puede leer,
+	 * se empieza con un historial vacío.
+	 *
+	 * @param archivo Ruta del archivo de estadísticas.
+	 * @return Estadísticas cargadas.
+	 */
+	public static EstadisticasServicios cargar(Path archivo) {
+		Map<String, Registro> registros = new TreeMap<>();
+		if (Files.exists(archivo)) {
+			try {
+				registros.putAll(new ObjectMapper().readValue(archivo.toFile(), new TypeReference<TreeMap<String, Registro>>() {}));
+			} catch (IOException e) {
+				System.err.println("No se pudo leer el historial de tiempos '" + archivo + "'; se usará uno nuevo.");
+			}
+		}
+		return new EstadisticasServicios(archivo, registros);
+	}
+
+	/**
+	 * Registra los tiempos de un servicio en la ejecución actual.
+	 *
+	 * @param servicio El identificador del servicio.
+	 * @param extraccionMs Duración de la extracción en el portal, en milisegundos.
+	 * @param analisisMs Duración del análisis de las actividades, en milisegundos.
+	 * @param cerrado true si el servicio estaba cerrado (sin actividades).
+	 */
+	public synchronized void registrar(String servicio, long extraccionMs, long analisisMs, boolean cerrado) {
+		Registro registro = registros.get(servicio);
+		if (registro == null) {
+			registro = new Registro();
+			registro.extraccionMs = extraccionMs;
+			registro.analisisMs = analisisMs;
+			registros.put(servicio, registro);
+		} else {
+			registro.extraccionMs = suavizar(registro.extraccionMs, extraccionMs);
+			registro.analisisMs = suavizar(registro.analisisMs, analisisMs);
+		}
+		registro.cerrado = cerrado;
+		registro.ejecuciones++;
+		registro.actualizado = LocalDateTime.now().withNano(0).toString();
+	}
+
+	/**
+	 * Estima el coste de un servicio a partir de su historial.
+	 *
+	 * @param servicio El identificador del servicio.
+	 * @return Duración estimada (extracción + análisis) en milisegundos.
+	 */
+	public synchronized long estimarMs(String servicio) {
+		return estimarMs(servicio, medianaMs());
+	}
+
+	private long estimarMs(String servicio, long medianaMs) {
+		Registro registro = registros.get(servicio);
+		return registro != null ? registro.extraccionMs + registro.analisisMs : medianaMs;
+	}
+
+	/**
+	 * Ordena los servicios para terminar antes: primero los de mayor coste estimado, estén abiertos
+	 * o cerrados. A igual coste se conserva el orden original.
+	 *
+	 * @param servicios Servicios a ordenar.
+	 * @return Nueva lista con los servicios en el orden planificado.
+	 */
+	public List<String> ordenar(List<String> servicios) {
+		return ordenar(servicios, Set.of());
+	}
+
+	/**
+	 * Ordena los servicios para terminar antes, dejando al final los que probablemente están
+	 * cerrados según una consulta previa y barata (ej. no aparecen en la vista de la cola).
+	 * Dentro de cada parte, primero los de mayor coste estimado; a igual coste se conserva el
+	 * orden original.
+	 *
+	 * @param servicios Servicios a ordenar.
+	 * @param probablementeCerrados Servicios que probablemente están cerrados.
+	 * @return Nueva lista con los servicios en el orden planificado.
+	 */
+	public synchronized List<String> ordenar(List<String> servicios, Set<String> probablementeCerrados) {
+		long mediana = medianaMs();
+		Map<String, Long> estimaciones = new HashMap<>();
+		for (String servicio : servicios) {
+			estimaciones.put(servicio, estimarMs(servicio, mediana));
+		}
+		List<String> ordenados = new ArrayList<>(servicios);
+		ordenados.sort(Comparator.comparing((String s) -> probablementeCerrados.contains(s))
+				.thenComparing(Comparator.comparingLong((String s) -> estimaciones.get(s)).reversed()));
+		return ordenados;
+	}
+
+	/**
+	 * Estima la duración total de procesar los servicios en el orden dado, repartidos entre
+	 * varias sesiones: cada servicio se asigna a la sesión que queda libre primero.
+	 *
+	 * @param ordenados Servicios en el orden en que se procesarán.
+	 * @param sesiones Número de sesiones en paralelo.
+	 * @return Duración estimada en milisegundos.
+	 */
+	public synchronized long makespanPlanificado(List<String> ordenados, int sesiones) {
+		PriorityQueue<Long> cargas = new PriorityQueue<>();
+		for (int i = 0; i < Math.max(1, sesiones); i++) {
+			cargas.add(0L);
+		}
+		long mediana = medianaMs();
+		for (String servicio : ordenados) {
+			cargas.add(cargas.poll() + estimarMs(servicio, mediana));
+		}
+		return cargas.stream().mapToLong(Long::longValue).max().orElse(0);
+	}
+
+	/**
+	 * Guarda las estadísticas en el archivo, reemplazándolo de forma atómica.
+	 *
+	 * @throws IOException si ocurre un error al escribir el archivo.
+	 */
+	public synchronized void guardar() throws IOException {
+		Path temporal = archivo.resolveSibling(archivo.getFileName() + ".tmp");
+		mapper.writerWithDefaultPrettyPrinter().writeValue(temporal.toFile(), registros);
+		Files.move(temporal, archivo, StandardCopyOption.REPLACE_EXISTING, StandardCopyOption.ATOMIC_MOVE);
+	}
+
+	private long medianaMs() {
+		long[] costes = registros.values().stream()
+				.filter(r -> !r.cerrado)
+				.mapToLong(r -> r.extraccionMs + r.analisisMs)
+				.sorted()
+				.toArray();
+		return costes.length == 0 ? ESTIMACION_POR_DEFECTO_MS : costes[costes.length / 2];
+	}
+
+	private static long suavizar(long anterior, long nuevo) {
+		return Math.round((1 - PESO_NUEVA_MUESTRA) * anterior + PESO_NUEVA_MUESTRA * nuevo);
+	}
+
+	/**
+	 * Tiempos registrados para un servicio.
+	 */
+	public static class Registro {
+		/** Duración suavizada de la extracción en el portal, en milisegundos. */
+		public long extraccionMs;
+
+		/** Duración suavizada del análisis de actividades, en milisegundos. */
+		public long analisisMs;
+
+		/** Si el servicio estaba cerrado en su última revisión. */
+		public boolean cerrado;
+
+		/** Número de revisiones registradas. */
+		public int ejecuciones;
+
+		/** Fecha y hora de la última revisión (ISO-8601). */
+		public String actualizado;
+	}
+}
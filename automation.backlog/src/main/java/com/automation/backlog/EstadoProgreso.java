@@ -0,0 +1,73 @@
+package com.automation.backlog;
+
+import java.util.Map;
+
+/**
+ * Foto del avance de una revisión en un momento dado.
+ *
+ * Es la misma información que se muestra en la consola y la que se publica en el archivo
+ * <code>estado_revision.json</code>, por eso sus campos son públicos y se serializan tal cual.
+ */
+public class EstadoProgreso {
+
+	/** "EN_CURSO" mientras se revisan servicios; "FINALIZADA" al terminar. */
+	public String estado;
+
+	/** Si es el último estado de la revisión. */
+	public boolean finalizada;
+
+	/** Fecha y hora de inicio de la revisión (ISO-8601). */
+	public String inicio;
+
+	/** Fecha y hora de esta actualización (ISO-8601). */
+	public String actualizado;
+
+	/** Número de servicios a revisar. */
+	public int total;
+
+	/** Servicios revisados y analizados correctamente. */
+	public int terminados;
+
+	/** Servicios que estaban cerrados (sin actividades). */
+	public int cerrados;
+
+	/** Servicios que no se pudieron extraer o analizar. */
+	public int fallidos;
+
+	/** Servicios que faltan por revisar. */
+	public int pendientes;
+
+	/** Ritmo actual, calculado sobre los últimos servicios revisados. */
+	public double serviciosPorMinuto;
+
+	/** Tiempo estimado para terminar, en segundos; null mientras no hay datos suficientes. */
+	public Long etaSegundos;
+
+	/** Paso con mayor duración media por servicio (ej. "extracción"). */
+	public String pasoMasLento;
+
+	/** Duración media de cada paso, en milisegundos. */
+	public Map<String, Long> promedioPasoMs;
+
+	/** Sesiones que el controlador de concurrencia permite en este momento. */
+	public int sesionesPermitidas;
+
+	/** Pausa actual entre peticiones al portal, en milisegundos. */
+	public long pausaMs;
+
+	/** Último servicio revisado. */
+	public String ultimoServicio;
+
+	/** Tiempo transcurrido desde el inicio de la revisión, en segundos. */
+	public long transcurridoSegundos;
+
+	/** Segundos desde que terminó el último servicio (o desde el inicio, si aún no terminó ninguno). */
+	public long sinAvanceSegundos;
+
+	/**
+	 * @return Número de servicios revisados, con cualquier resultado.
+	 */
+	public int procesados() {
+		return terminados + cerrados + fallidos;
+	}
+}
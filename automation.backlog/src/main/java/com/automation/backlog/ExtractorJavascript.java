@@ -0,0 +1,175 @@
+package com.automation.backlog;
+
+import java.io.IOException;
+import java.io.InputStream;
+import java.io.UncheckedIOException;
+import java.nio.charset.StandardCharsets;
+import java.time.Duration;
+import java.util.Map;
+import java.util.Objects;
+
+import org.openqa.selenium.JavascriptExecutor;
+import org.openqa.selenium.ScriptTimeoutException;
+import org.openqa.selenium.StaleElementReferenceException;
+import org.openqa.selenium.WebDriver;
+import org.openqa.selenium.WebDriverException;
+
+import com.fasterxml.jackson.core.JsonProcessingException;
+import com.fasterxml.jackson.databind.ObjectMapper;
+
+/**
+ * Extrae las actividades de un servicio con un único <code>executeAsyncScript</code>.
+ *
+ * En lugar de encadenar findElement, clear, sendKeys, click y getText (una llamada HTTP a
+ * WebDriver por cada paso), el script <code>extraccion_actividades.js</code> envía la búsqueda,
+ * espera en la propia página el contenido de Actividades y devuelve el texto crudo
+ * (<code>textContent</code>) junto con el estado y el asignado del servicio. Los selectores
+ * que usa el script provienen del {@link PerfilPagina} de la cola.
+ *
+ * <p>Si el envío de la búsqueda recarga el documento del iframe, el navegador aborta el script;
+ * en ese caso se lanza un segundo script que solo espera y lee, por lo que cada servicio
+ * cuesta una o dos llamadas a WebDriver. Cualquier otro error se propaga sin reintentar.
+ *
+ * <p>El script envía la búsqueda con eventos de teclado sintéticos, que el portal podría ignorar.
+ * Hasta que un servicio muestre sus actividades, la extracción no se da por {@link #isValidado() validada}
+ * y quien la usa debe repetir con la interacción paso a paso los servicios que agoten la espera;
+ * si así aparecen actividades que el script no vio, el extractor se {@link #registrarRespaldo desactiva}.
+ *
+ * <p>El driver debe estar ubicado dentro del iframe de la cola antes de llamar a {@link #extraer}.
+ */
+public class ExtractorJavascript {
+
+	private static final String RECURSO_SCRIPT = "/extraccion_actividades.js";
+
+	private final WebDriver driver;
+	private final JavascriptExecutor executor;
+	private final String script;
+	private final long timeoutMs;
+	private final Duration timeoutScript;
+	private final Duration timeoutOriginal;
+	private final ObjectMapper mapper = new ObjectMapper();
+	private boolean validado;
+	private boolean activo = true;
+
+	/**
+	 * Constructor que carga el script desde los recursos.
+	 *
+	 * @param driver WebDriver con soporte para JavaScript.
+	 * @param waitSeconds Segundos máximos de espera por las actividades de un servicio.
+	 */
+	public ExtractorJavascript(WebDriver driver, int waitSeconds) {
+		this.driver = driver;
+		this.executor = (JavascriptExecutor) driver;
+		this.script = cargarScript();
+		this.timeoutMs = waitSeconds * 1000L;
+
+		// Margen para que el script responda por sí mismo antes de que WebDriver lo aborte.
+		// Si el timeout de scripts del driver no alcanza, se amplía solo durante cada extracción
+		this.timeoutScript = Duration.ofSeconds(waitSeconds + 5L);
+		Duration actual = driver.manage().timeouts().getScriptTimeout();
+		this.timeoutOriginal = actual.compareTo(timeoutScript) < 0 ? actual : null;
+	}
+
+	/**
+	 * Busca el servicio y obtiene sus actividades y metadatos.
+	 *
+	 * @param servicio El identificador del servicio (ej. "IN123", "PT456").
+	 * @param perfil Perfil de página de la cola, con los selectores que usará el script.
+	 * @return Datos del servicio; {@link DatosServicio#ok} es false si no se encontraron actividades.
+	 */
+	public DatosServicio extraer(String servicio, PerfilPagina perfil) {
+		Map<String, Object> selectores = Map.of(
+				"campoBusqueda", perfil.campoBusqueda,
+				"pestanaActividades", perfil.pestanaActividades,
+				"textoPestanaActividades", Objects.requireNonNullElse(perfil.textoPestanaActividades, ""),
+				"bloqueActividades", perfil.bloqueActividades,
+				"posicionActividades", perfil.posicionActividades);
+
+		if (timeoutOriginal != null) driver.manage().timeouts().scriptTimeout(timeoutScript);
+		Object respuesta;
+		try {
+			respuesta = executor.executeAsyncScript(script, servicio, selectores, timeoutMs, true);
+		} catch (ScriptTimeoutException e) {
+			throw e;
+		} catch (WebDriverException e) {
+			if (!esRecarga(e)) throw e;
+			
+			// La búsqueda se envió y recargó el documento: esperamos el resultado en el documento nuevo
+			respuesta = executor.executeAsyncScript(script, servicio, selectores, timeoutMs, false);
+		} finally {
+			if (timeoutOriginal != null) driver.manage().timeouts().scriptTimeout(timeoutOriginal);
+		}
+		
+		DatosServicio datos = leerRespuesta(respuesta);
+		if (datos.ok) validado = true;
+		return datos;
+	}
+
+	/**
+	 * Registra el resultado de repetir con la interacción paso a paso un servicio cuya espera
+	 * agotó el script. Si la interacción encontró actividades antes de que el script haya funcionado
+	 * una sola vez, el portal no acepta la búsqueda del script y el extractor se desactiva.
+	 *
+	 * @param encontradas true si la interacción paso a paso encontró actividades.
+	 */
+	public void registrarRespaldo(boolean encontradas) {
+		if (encontradas && !validado) {
+			activo = false;
+			System.err.println("El portal no respondió a la búsqueda del script de extracción; se usará el modo \"dom\".");
+		}
+	}
+
+	/**
+	 * @return true si el script ya obtuvo las actividades de algún servicio.
+	 */
+	public boolean isValidado() {
+		return validado;
+	}
+
+	/**
+	 * @return false si el extractor se desactivó porque el portal no acepta la búsqueda del script.
+	 */
+	public boolean isActivo() {
+		return activo;
+	}
+
+	/**
+	 * Indica si el error corresponde a la recarga del documento provocada por la búsqueda,
+	 * que aborta el script en curso.
+	 */
+	private static boolean esRecarga(WebDriverException e) {
+		if (e instanceof StaleElementReferenceException) return true;
+		String mensaje = e.getMessage();
+		return mensaje != null && mensaje.contains("document unloaded");
+	}
+
+	/**
+	 * Convierte el JSON devuelto por el script en un objeto {@link DatosServicio}.
+	 *
+	 * @param respuesta Valor devuelto por el script (cadena JSON).
+	 * @return Datos del servicio.
+	 */
+	private DatosServicio leerRespuesta(Object respuesta) {
+		try {
+			return mapper.readValue(String.valueOf(respuesta), DatosServicio.class);
+		} catch (JsonProcessingException e) {
+			throw new IllegalStateException("Respuesta inválida del script de extracción: " + respuesta, e);
+		}
+	}
+
+	/**
+	 * Lee el script de extracción ubicado en src/main/resources.
+	 *
+	 * @return Contenido del script.
+	 */
+	private static String cargarScript() {
+		try (InputStream inputStream = ExtractorJavascript.class.getResourceAsStream(RECURSO_SCRIPT)) {
+			if (inputStream == null) {
+				throw new IllegalStateException("No se pudo encontrar el recurso " + RECURSO_SCRIPT);
+			}
+			return new String(inputStream.readAllBytes(), StandardCharsets.UTF_8);
+		} catch (IOException e) {
+			throw new UncheckedIOException(e);
+		}
+	}
+}
@@ -0,0 +1,317 @@
+package com.automation.backlog;
+
+import java.nio.charset.StandardCharsets;
+import java.util.Base64;
+import java.util.HashSet;
+import java.util.Map;
+import java.util.Set;
+import java.util.concurrent.BlockingQueue;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.LinkedBlockingQueue;
+import java.util.concurrent.TimeUnit;
+import java.util.regex.Matcher;
+import java.util.regex.Pattern;
+
+import org.openqa.selenium.WebDriver;
+import org.openqa.selenium.WebDriverException;
+import org.openqa.selenium.devtools.Command;
+import org.openqa.selenium.devtools.DevTools;
+import org.openqa.selenium.devtools.Event;
+import org.openqa.selenium.devtools.HasDevTools;
+import org.openqa.selenium.json.Json;
+
+/**
+ * Obtiene las actividades de un servicio directamente de las respuestas del portal, capturadas con
+ * el dominio <code>Network</code> de Chrome DevTools (CDP), sin esperar a que la página las muestre.
+ *
+ * Se usan los comandos y eventos genéricos de Selenium ({@link Command}, {@link Event}) en lugar de
+ * las clases generadas para una versión concreta de Chrome, así que el modo no depende de la
+ * versión del navegador instalada.
+ *
+ * <p>Funcionamiento por servicio:
+ * <ol>
+ *   <li>{@link #iniciarCaptura(PerfilPagina)} antes de enviar la búsqueda.</li>
+ *   <li>Se capturan las respuestas cuya URL coincide con {@link PerfilPagina#patronRespuestaDetalle}.</li>
+ *   <li>{@link #esperarActividades} lee el cuerpo de cada respuesta y busca, entre los bloques
+ *       <code>textareaView</code>, el que contiene más entradas de gestión, sin importar su posición.
+ *       Cada bloque se delimita contando los <code>div</code> que abre y cierra, ya que las
+ *       actividades pueden contener otros <code>div</code> anidados.</li>
+ * </ol>
+ *
+ * Si el portal no envía las actividades en un formato reconocible, o un bloque llega sin cerrar,
+ * {@link #esperarActividades} devuelve null y {@link SesionPortal} lee el servicio desde la página
+ * como en el modo "dom". Una vez que la captura ha funcionado en una cola, una respuesta completa
+ * del servicio sin ningún bloque de actividades, o ninguna respuesta en todo el tiempo de espera,
+ * indica que no las tiene (ej. está cerrado), sin volver a esperar por la página: es la misma espera
+ * con la que el modo "dom" da por cerrado un servicio cuya pestaña de actividades no aparece.
+ * Tras {@value #FALLOS_PARA_DESACTIVAR} servicios seguidos sin reconocer ninguna respuesta, la
+ * captura se desactiva para no esperar dos veces por cada servicio.
+ */
+public class ExtractorRed {
+
+	private static final int FALLOS_PARA_DESACTIVAR = 3;
+	private static final Set<String> TIPOS_RECURSO = Set.of("Document", "XHR", "Fetch");
+	private static final Pattern BLOQUE_PATTERN = Pattern.compile(
+			"<div[^>]*class=\"[^\"]*textareaView[^\"]*\"[^>]*>",
+			Pattern.DOTALL | Pattern.CASE_INSENSITIVE);
+	private static final Pattern DIV_PATTERN = Pattern.compile("<(/?)div\\b[^>]*?(/?)>", Pattern.CASE_INSENSITIVE);
+	private static final Pattern SALTO_PATTERN = Pattern.compile("<br\\s*/?>|</p>|</li>", Pattern.CASE_INSENSITIVE);
+	private static final Pattern ETIQUETA_PATTERN = Pattern.compile("<[^>]+>");
+	private static final Pattern ENTIDAD_NUMERICA_PATTERN = Pattern.compile("&#(x?)([0-9a-fA-F]+);");
+	private static final Pattern ENTIDAD_PATTERN = Pattern.compile("&([a-zA-Z]+);");
+	private static final Map<String, String> ENTIDADES = Map.ofEntries(
+			Map.entry("nbsp", " "), Map.entry("lt", "<"), Map.entry("gt", ">"),
+			Map.entry("quot", "\""), Map.entry("apos", "'"), Map.entry("amp", "&"),
+			Map.entry("aacute", "á"), Map.entry("eacute", "é"), Map.entry("iacute", "í"),
+			Map.entry("oacute", "ó"), Map.entry("uacute", "ú"), Map.entry("ntilde", "ñ"), Map.entry("uuml", "ü"),
+			Map.entry("Aacute", "Á"), Map.entry("Eacute", "É"), Map.entry("Iacute", "Í"),
+			Map.entry("Oacute", "Ó"), Map.entry("Uacute", "Ú"), Map.entry("Ntilde", "Ñ"), Map.entry("Uuml", "Ü"));
+
+	private final DevTools devTools;
+	private final long timeoutMs;
+	private final BlockingQueue<String> respuestasListas = new LinkedBlockingQueue<>();
+	private final Map<String, Boolean> respuestasCandidatas = new ConcurrentHashMap<>();
+	private volatile Pattern patronActual;
+	private PerfilPagina perfilActual;
+	private final Set<PerfilPagina> perfilesReconocidos = new HashSet<>();
+	private int fallosSeguidos;
+	private boolean activo = true;
+
+	/**
+	 * Constructor que abre la sesión de DevTools y activa la captura de red.
+	 *
+	 * @param driver WebDriver con soporte para DevTools (ej. ChromeDriver).
+	 * @param waitSeconds Segundos máximos de espera por las respuestas de un servicio.
+	 * @throws WebDriverException si el navegador no admite DevTools.
+	 */
+	public ExtractorRed(WebDriver driver, int waitSeconds) {
+		if (!(driver instanceof HasDevTools)) {
+			throw new WebDriverException("El navegador no admite Chrome DevTools");
+		}
+		this.devTools = ((HasDevTools) driver).getDevTools();
+		this.timeoutMs = waitSeconds * 1000L;
+
+		devTools.createSessionIfThereIsNotOne();
+		devTools.send(new Command<Void>("Network.enable", Map.of()));
+
+		// Solo se guardan los identificadores; el cuerpo se pide cuando hace falta
+		devTools.addListener(new Event<>("Network.responseReceived", input -> input.<Map<String, Object>>read(Json.MAP_TYPE)),
+				this::alRecibirRespuesta);
+		devTools.addListener(new Event<>("Network.loadingFinished", input -> input.<Map<String, Object>>read(Json.MAP_TYPE)),
+				this::alTerminarCarga);
+	}
+
+	/**
+	 * Descarta las respuestas anteriores y empieza a capturar las de la cola indicada.
+	 * Debe llamarse antes de enviar la búsqueda del servicio.
+	 *
+	 * @param perfil Perfil de página de la cola, con el patrón de URL de sus respuestas.
+	 */
+	public void iniciarCaptura(PerfilPagina perfil) {
+		respuestasCandidatas.clear();
+		respuestasListas.clear();
+		perfilActual = perfil;
+		patronActual = perfil.getPatronRespuestaDetalle();
+	}
+
+	/**
+	 * Espera las respuestas del portal al buscar el servicio y extrae de ellas las actividades.
+	 *
+	 * @param servicio El identificador del servicio buscado.
+	 * @return Datos del servicio, o null si no llegó ninguna respuesta reconocible a tiempo y la captura
+	 *         aún no ha funcionado en la cola. Si la respuesta muestra que el servicio no tiene actividades,
+	 *         o la captura ya funcionó en la cola y no llegó su respuesta, {@link DatosServicio#ok} es false.
+	 */
+	public DatosServicio esperarActividades(String servicio) {
+		boolean reconocida = perfilesReconocidos.contains(perfilActual);
+		long limite = System.currentTimeMillis() + timeoutMs;
+		try {
+			long restante;
+			while ((restante = limite - System.currentTimeMillis()) > 0) {
+				String requestId = respuestasListas.poll(restante, TimeUnit.MILLISECONDS);
+				if (requestId == null) break;
+
+				String cuerpo = leerCuerpo(requestId);
+				if (cuerpo == null || !cuerpo.contains(servicio)) continue;
+
+				Lectura lectura = leerRespuesta(cuerpo);
+				if (lectura.incompleta) {
+					// No podemos fiarnos de un bloque truncado: la página sí mostrará el texto completo
+					return null;
+				}
+				if (lectura.actividades != null) {
+					fallosSeguidos = 0;
+					perfilesReconocidos.add(perfilActual);
+
+					DatosServicio datos = new DatosServicio();
+					datos.ok = true;
+					datos.texto = lectura.actividades;
+					return datos;
+				}
+				if (reconocida && lectura.bloques == 0) {
+					// El formato ya se reconoció con otros servicios: el detalle llegó sin actividades
+					return sinActividades(servicio);
+				}
+			}
+		} catch (InterruptedException e) {
+			Thread.currentThread().interrupt();
+			return null;
+		} finally {
+			patronActual = null;
+		}
+
+		// Con la captura ya reconocida en la cola, un servicio sin respuesta en todo el tiempo de espera
+		// es un servicio sin detalle (ej. cerrado); esperar además por la página solo duplicaría la espera
+		if (reconocida) return sinActividades(servicio);
+
+		// Si el portal nunca ha enviado las actividades en un formato reconocible, dejamos de intentarlo
+		if (perfilesReconocidos.isEmpty() && ++fallosSeguidos >= FALLOS_PARA_DESACTIVAR) {
+			System.err.println("Las respuestas del portal no contienen actividades reconocibles; se usará la lectura de la página.");
+			desactivar();
+		}
+		return null;
+	}
+
+	private static DatosServicio sinActividades(String servicio) {
+		DatosServicio datos = new DatosServicio();
+		datos.error = "No se encontraron actividades para " + servicio;
+		return datos;
+	}
+
+	/**
+	 * @return true mientras la captura de red esté en uso.
+	 */
+	public boolean isActivo() {
+		return activo;
+	}
+
+	/**
+	 * Desactiva la captura de red y libera los oyentes de DevTools.
+	 */
+	public void desactivar() {
+		activo = false;
+		try {
+			devTools.clearListeners();
+			devTools.send(new Command<Void>("Network.disable", Map.of()));
+		} catch (WebDriverException e) {
+			// La sesión de DevTools ya no está disponible: no hay nada que liberar
+		}
+	}
+
+	/**
+	 * Lo que se encontró en el cuerpo de una respuesta.
+	 */
+	static class Lectura {
+		/** Texto del bloque con más entradas de gestión, o null si ningún bloque las contiene. */
+		String actividades;
+
+		/** Número de bloques <code>textareaView</code> completos en la respuesta. */
+		int bloques;
+
+		/** Indica que un bloque empieza en la respuesta pero no se cierra (ej. llegó truncada). */
+		boolean incompleta;
+	}
+
+	/**
+	 * Selecciona, entre los bloques de texto de la respuesta, el que contiene más entradas de gestión.
+	 *
+	 * @param cuerpo Cuerpo de la respuesta (HTML o XML con HTML escapado).
+	 * @return Bloques encontrados y texto de las actividades, si las hay.
+	 */
+	static Lectura leerRespuesta(String cuerpo) {
+		Lectura lectura = new Lectura();
+		int mejorEntradas = 0;
+
+		// Algunas respuestas llevan el formulario escapado dentro de un XML
+		String html = BLOQUE_PATTERN.matcher(cuerpo).find() ? cuerpo : desescapar(cuerpo);
+		Matcher bloque = BLOQUE_PATTERN.matcher(html);
+		Matcher div = DIV_PATTERN.matcher(html);
+		while (bloque.find()) {
+			int fin = cierreBloque(div, bloque.end());
+			if (fin < 0) {
+				lectura.incompleta = true;
+				break;
+			}
+			lectura.bloques++;
+
+			String texto = textoPlano(html.substring(bloque.end(), fin));
+			int entradas = AnalizadorGestiones.contarEntradas(texto);
+			if (entradas > mejorEntradas) {
+				lectura.actividades = texto;
+				mejorEntradas = entradas;
+			}
+		}
+		return lectura;
+	}
+
+	/**
+	 * Busca el <code>&lt;/div&gt;</code> que cierra un bloque, saltando los <code>div</code> anidados.
+	 *
+	 * @param div Matcher de etiquetas <code>div</code> sobre el mismo texto.
+	 * @param desde Posición justo después de la etiqueta de apertura del bloque.
+	 * @return Posición de la etiqueta de cierre, o -1 si el bloque no se cierra.
+	 */
+	private static int cierreBloque(Matcher div, int desde) {
+		int profundidad = 1;
+		if (!div.find(desde)) return -1;
+		do {
+			if (!div.group(2).isEmpty()) continue; // <div/> no abre nada
+			profundidad += div.group(1).isEmpty() ? 1 : -1;
+			if (profundidad == 0) return div.start();
+		} while (div.find());
+		return -1;
+	}
+
+	/**
+	 * Convierte un fragmento HTML en texto con los mismos saltos de línea que muestra la página.
+	 */
+	private static String textoPlano(String html) {
+		String texto = SALTO_PATTERN.matcher(html).replaceAll("\n");
+		texto = ETIQUETA_PATTERN.matcher(texto).replaceAll("");
+		return desescapar(texto).replace('\u00a0', ' ').trim();
+	}
+
+	/**
+	 * Reemplaza las entidades HTML numéricas y las habituales en español; las desconocidas se conservan.
+	 * Cada entidad se reemplaza una sola vez, por lo que "&amp;lt;" queda como "&lt;".
+	 */
+	private static String desescapar(String texto) {
+		String resultado = ENTIDAD_NUMERICA_PATTERN.matcher(texto).replaceAll(m ->
+				Matcher.quoteReplacement(Character.toString(Integer.parseInt(m.group(2), m.group(1).isEmpty() ? 10 : 16))));
+		return ENTIDAD_PATTERN.matcher(resultado).replaceAll(m ->
+				Matcher.quoteReplacement(ENTIDADES.getOrDefault(m.group(1), m.group())));
+	}
+
+	private String leerCuerpo(String requestId) {
+		try {
+			Map<String, Object> respuesta = devTools.send(new Command<>("Network.getResponseBody",
+					Map.of("requestId", requestId), input -> input.<Map<String, Object>>read(Json.MAP_TYPE)));
+			String cuerpo = String.valueOf(respuesta.get("body"));
+			if (Boolean.TRUE.equals(respuesta.get("base64Encoded"))) {
+				cuerpo = new String(Base64.getDecoder().decode(cuerpo), StandardCharsets.UTF_8);
+			}
+			return cuerpo;
+		} catch (WebDriverException e) {
+			// El navegador ya descartó el cuerpo (ej. el iframe se recargó)
+			return null;
+		}
+	}
+
+	@SuppressWarnings("unchecked")
+	private void alRecibirRespuesta(Map<String, Object> evento) {
+		Pattern patron = patronActual;
+		if (patron == null || !TIPOS_RECURSO.contains(evento.get("type"))) return;
+
+		Map<String, Object> response = (Map<String, Object>) evento.get("response");
+		if (response != null && patron.matcher(String.valueOf(response.get("url"))).find()) {
+			respuestasCandidatas.put(String.valueOf(evento.get("requestId")), Boolean.TRUE);
+		}
+	}
+
+	private void alTerminarCarga(Map<String, Object> evento) {
+		String requestId = String.valueOf(evento.get("requestId"));
+		if (respuestasCandidatas.remove(requestId) != null) {
+			respuestasListas.add(requestId);
+		}
+	}
+}
@@ -0,0 +1,17 @@
+package com.automation.backlog;
+
+/**
+ * Recibe el estado de avance de una revisión cada vez que {@link ProgresoRevision} lo actualiza.
+ *
+ * Las notificaciones llegan desde los hilos de las sesiones, una a la vez; cada oyente decide
+ * con qué frecuencia muestra o guarda el estado, salvo el estado final, que siempre debe reflejar.
+ */
+public interface OyenteProgreso {
+
+	/**
+	 * Notifica un nuevo estado de la revisión.
+	 *
+	 * @param estado Copia inmutable del estado; {@link EstadoProgreso#finalizada} indica que es el último.
+	 */
+	void actualizar(EstadoProgreso estado);
+}
@@ -0,0 +1,230 @@
+package com.automation.backlog;
+
+import java.io.IOException;
+import java.io.InputStream;
+import java.net.URLEncoder;
+import java.nio.charset.StandardCharsets;
+import java.util.ArrayList;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.regex.Pattern;
+import java.util.regex.PatternSyntaxException;
+
+import org.openqa.selenium.By;
+
+import com.fasterxml.jackson.core.type.TypeReference;
+import com.fasterxml.jackson.databind.ObjectMapper;
+
+/**
+ * Perfil declarativo de la página de una cola de servicios (incidentes, peticiones...).
+ *
+ * Reúne todo lo que diferencia un tipo de servicio de otro: las opciones del menú, el iframe
+ * de la cola y los selectores CSS de cada elemento. Los perfiles se cargan desde el recurso
+ * <code>perfiles_pagina.json</code>, indexados por el prefijo del servicio ("IN", "PT"), y
+ * sus selectores se compilan una sola vez a objetos {@link By}.
+ *
+ * <p>Salvo el menú, el iframe y el botón de cancelar, todos los selectores se aplican dentro
+ * del iframe de la cola.
+ * Cuando un selector CSS no basta para distinguir el elemento (pestañas, botones), se acompaña
+ * del texto que debe contener.
+ */
+public class PerfilPagina {
+
+	private static final String RECURSO_PERFILES = "/perfiles_pagina.json";
+	private static final String MARCADOR_ID = "{id}";
+
+	/** Nombre legible de la cola (ej. "Incidentes"). */
+	public String nombre;
+
+	/** Id del nodo del menú que despliega la gestión del tipo de servicio. */
+	public String menu;
+
+	/** Id del nodo del menú que abre la cola. */
+	public String submenu;
+
+	/** Fragmento del atributo src del iframe de la cola. */
+	public String srcIframe;
+
+	/** Selector del botón que abre las opciones de búsqueda. */
+	public String botonBuscar;
+
+	/** Selector del campo donde se escribe el número de servicio. */
+	public String campoBusqueda;
+
+	/** Selector de las pestañas del formulario de detalle. */
+	public String pestanaActividades;
+
+	/** Texto de la pestaña de actividades. */
+	public String textoPestanaActividades;
+
+	/** Selector de los bloques de texto de solo lectura del formulario de detalle. */
+	public String bloqueActividades;
+
+	/** Posición (base 1) del bloque que contiene las actividades. */
+	public int posicionActividades;
+
+	/** Selector de los botones de la barra de herramientas. */
+	public String botonCancelar;
+
+	/** Texto del botón que cierra el detalle y vuelve a la búsqueda. */
+	public String textoBotonCancelar;
+
+	/**
+	 * Expresión regular que identifica, por su URL, las respuestas del portal con el formulario
+	 * de detalle (opcional). Solo se usa en el modo de extracción "cdp". Conviene que sea específica:
+	 * el cuerpo de cada respuesta que coincida se pide al navegador y se revisa.
+	 */
+	public String patronRespuestaDetalle;
+
+	/**
+	 * Enlace directo al formulario de detalle de un servicio, con <code>{id}</code> en lugar del
+	 * número de servicio (opcional). Se abre dentro del iframe de la cola, por lo que puede ser
+	 * relativo a su página. Solo se usa si la configuración activa <code>enlaceDirecto</code>; si no,
+	 * o si el perfil no lo define, los servicios se buscan con el formulario de búsqueda.
+	 * El perfil de peticiones (PT) no lo define: el enlace directo no está soportado para ellas.
+	 */
+	public String enlaceDetalle;
+
+	/** Selector de las filas de la vista de la cola (opcional, necesario para el modo vigilancia). */
+	public String filasCola;
+
+	/** Selector de las celdas dentro de cada fila de la cola. */
+	public String celdasCola;
+
+	/** Posición (base 1) de la celda con el número de servicio. */
+	public int columnaServicio;
+
+	/** Posición (base 1) de la celda con la fecha de última actualización del servicio. */
+	public int columnaActualizacion;
+
+	private By byMenu;
+	private By bySubmenu;
+	private By byIframe;
+	private By byCampoBusqueda;
+	private Pattern patronDetalle;
+
+	/**
+	 * Carga los perfiles del recurso <code>perfiles_pagina.json</code> y compila sus selectores.
+	 *
+	 * @return Mapa ordenado con el prefijo del servicio como clave y su perfil como valor.
+	 * @throws IOException si el recurso no existe o no es un JSON válido.
+	 * @throws IllegalStateException si algún perfil está incompleto.
+	 */
+	public static Map<String, PerfilPagina> cargar() throws IOException {
+		try (InputStream inputStream = PerfilPagina.class.getResourceAsStream(RECURSO_PERFILES)) {
+			if (inputStream == null) {
+				throw new IOException("No se pudo encontrar el recurso " + RECURSO_PERFILES);
+			}
+			Map<String, PerfilPagina> perfiles = new ObjectMapper()
+					.readValue(inputStream, new TypeReference<LinkedHashMap<String, PerfilPagina>>() {});
+			for (Map.Entry<String, PerfilPagina> entry : perfiles.entrySet()) {
+				entry.getValue().compilar(entry.getKey());
+			}
+			return perfiles;
+		}
+	}
+
+	/**
+	 * Verifica que el perfil esté completo y construye los objetos {@link By}.
+	 *
+	 * @param prefijo Prefijo del servicio al que corresponde el perfil, usado en los mensajes de error.
+	 */
+	private void compilar(String prefijo) {
+		List<String> faltantes = new ArrayList<>();
+		if (esVacio(menu)) faltantes.add("menu");
+		if (esVacio(submenu)) faltantes.add("submenu");
+		if (esVacio(srcIframe)) faltantes.add("srcIframe");
+		if (esVacio(botonBuscar)) faltantes.add("botonBuscar");
+		if (esVacio(campoBusqueda)) faltantes.add("campoBusqueda");
+		if (esVacio(pestanaActividades)) faltantes.add("pestanaActividades");
+		if (esVacio(bloqueActividades)) faltantes.add("bloqueActividades");
+		if (esVacio(botonCancelar)) faltantes.add("botonCancelar");
+		if (posicionActividades < 1) faltantes.add("posicionActividades");
+		if (!esVacio(patronRespuestaDetalle)) {
+			try {
+				this.patronDetalle = Pattern.compile(patronRespuestaDetalle);
+			} catch (PatternSyntaxException e) {
+				faltantes.add("patronRespuestaDetalle");
+			}
+		}
+		if (!esVacio(enlaceDetalle) && !enlaceDetalle.contains(MARCADOR_ID)) faltantes.add("enlaceDetalle");
+		if (!faltantes.isEmpty()) {
+			throw new IllegalStateException("Perfil de página '" + prefijo + "' incompleto o inválido: " + faltantes);
+		}
+
+		this.byMenu = By.id(menu);
+		this.bySubmenu = By.cssSelector("[id='" + submenu + "'] a");
+		this.byIframe = By.cssSelector("iframe[src*='" + srcIframe + "']");
+		this.byCampoBusqueda = By.cssSelector(campoBusqueda);
+	}
+
+	/**
+	 * Selectores que se evalúan dentro del iframe, para validar su sintaxis contra la página real.
+	 * Durante la revisión se usan como texto CSS dentro de los scripts de espera.
+	 *
+	 * @return Mapa con el nombre del campo como clave y su selector como valor.
+	 */
+	public Map<String, By> selectoresIframe() {
+		Map<String, By> selectores = new LinkedHashMap<>();
+		selectores.put("campoBusqueda", byCampoBusqueda);
+		selectores.put("pestanaActividades", By.cssSelector(pestanaActividades));
+		selectores.put("bloqueActividades", By.cssSelector(bloqueActividades));
+		return selectores;
+	}
+
+	/**
+	 * Selectores que se evalúan fuera del iframe, para validar su sintaxis contra la página real.
+	 *
+	 * @return Mapa con el nombre del campo como clave y su selector como valor.
+	 */
+	public Map<String, By> selectoresPagina() {
+		Map<String, By> selectores = new LinkedHashMap<>();
+		selectores.put("botonBuscar", By.cssSelector(botonBuscar));
+		selectores.put("botonCancelar", By.cssSelector(botonCancelar));
+		return selectores;
+	}
+
+	/**
+	 * @return true si el perfil define cómo leer la vista de la cola, necesario para el modo vigilancia.
+	 */
+	public boolean admiteVigilancia() {
+		return !esVacio(filasCola) && !esVacio(celdasCola) && columnaServicio > 0 && columnaActualizacion > 0;
+	}
+
+	private static boolean esVacio(String valor) {
+		return valor == null || valor.isBlank();
+	}
+
+	public By getMenu() {
+		return byMenu;
+	}
+
+	public By getSubmenu() {
+		return bySubmenu;
+	}
+
+	public By getIframe() {
+		return byIframe;
+	}
+
+	public By getCampoBusqueda() {
+		return byCampoBusqueda;
+	}
+
+	/**
+	 * @param servicio El identificador del servicio.
+	 * @return Enlace directo al detalle del servicio, o null si el perfil no lo define.
+	 */
+	public String getEnlaceDetalle(String servicio) {
+		if (esVacio(enlaceDetalle)) return null;
+		return enlaceDetalle.replace(MARCADOR_ID, URLEncoder.encode(servicio.trim(), StandardCharsets.UTF_8));
+	}
+
+	/**
+	 * @return Patrón compilado de las URL de detalle, o null si el perfil no lo define.
+	 */
+	public Pattern getPatronRespuestaDetalle() {
+		return patronDetalle;
+	}
+}
@@ -0,0 +1,58 @@
+package com.automation.backlog;
+
+import java.io.IOException;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.StandardCopyOption;
+
+import com.fasterxml.jackson.databind.ObjectMapper;
+
+/**
+ * Publica el avance de la revisión en un archivo JSON, para seguir desde fuera una
+ * ejecución larga sin supervisión (ej. otro programa o un vistazo con el explorador de archivos).
+ *
+ * El archivo se reemplaza de forma atómica, así que quien lo lea nunca ve un JSON a medio
+ * escribir, y se actualiza como mucho cada {@value #INTERVALO_MS} ms, salvo el estado final.
+ * Como {@link ProgresoRevision} reenvía el estado cada segundo, el campo <code>actualizado</code>
+ * sigue avanzando aunque un servicio tarde: si deja de avanzar, la ejecución se detuvo.
+ */
+public class ProgresoArchivo implements OyenteProgreso {
+
+	/** Nombre del archivo de estado, ubicado junto al archivo de configuración. */
+	public static final String NOMBRE_ARCHIVO = "estado_revision.json";
+
+	private static final long INTERVALO_MS = 1_000;
+
+	private final ObjectMapper mapper = new ObjectMapper();
+	private final Path archivo;
+	private long ultimaEscritura;
+	private boolean avisado;
+
+	/**
+	 * Constructor de ProgresoArchivo.
+	 *
+	 * @param archivo Ruta del archivo de estado.
+	 */
+	public ProgresoArchivo(Path archivo) {
+		this.archivo = archivo;
+	}
+
+	@Override
+	public void actualizar(EstadoProgreso estado) {
+		long ahora = System.currentTimeMillis();
+		if (!estado.finalizada && ahora - ultimaEscritura < INTERVALO_MS) return;
+		ultimaEscritura = ahora;
+
+		Path temporal = archivo.resolveSibling(archivo.getFileName() + ".tmp");
+		try {
+			mapper.writerWithDefaultPrettyPrinter().writeValue(temporal.toFile(), estado);
+			Files.move(temporal, archivo, StandardCopyOption.REPLACE_EXISTING, StandardCopyOption.ATOMIC_MOVE);
+		} catch (IOException e) {
+			// El archivo de estado es informativo: un error no detiene la revisión
+			if (!avisado) {
+				System.err.println("No se pudo escribir el estado de la revisión '" + archivo + "': " + e.getMessage());
+				avisado = true;
+			}
+		}
+	}
+}
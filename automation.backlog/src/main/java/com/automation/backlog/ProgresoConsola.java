@@ -0,0 +1,91 @@
+package com.automation.backlog;
+
+import java.io.PrintStream;
+
+/**
+ * Muestra el avance de la revisión en la consola.
+ *
+ * En una terminal interactiva reescribe una única línea en el mismo lugar (retorno de carro),
+ * como mucho cada {@value #INTERVALO_TERMINAL_MS} ms. Si la salida está redirigida a un archivo,
+ * escribe una línea nueva cada {@value #INTERVALO_REDIRIGIDA_MS} ms para no llenarlo.
+ */
+public class ProgresoConsola implements OyenteProgreso {
+
+	private static final long INTERVALO_TERMINAL_MS = 250;
+	private static final long INTERVALO_REDIRIGIDA_MS = 15_000;
+	private static final long AVISO_SIN_AVANCE_SEGUNDOS = 60;
+
+	private final PrintStream salida;
+	private final boolean enLugar;
+	private final long intervaloMs;
+	private long ultimaEscritura;
+	private int largoAnterior;
+
+	/**
+	 * Constructor que escribe en la salida estándar.
+	 */
+	public ProgresoConsola() {
+		this(System.out, System.console() != null);
+	}
+
+	/**
+	 * Constructor de ProgresoConsola.
+	 *
+	 * @param salida Flujo donde se escribe el avance.
+	 * @param enLugar true para reescribir la misma línea; false para escribir líneas nuevas.
+	 */
+	public ProgresoConsola(PrintStream salida, boolean enLugar) {
+		this.salida = salida;
+		this.enLugar = enLugar;
+		this.intervaloMs = enLugar ? INTERVALO_TERMINAL_MS : INTERVALO_REDIRIGIDA_MS;
+	}
+
+	@Override
+	public void actualizar(EstadoProgreso estado) {
+		long ahora = System.currentTimeMillis();
+		if (!estado.finalizada && ahora - ultimaEscritura < intervaloMs) return;
+		ultimaEscritura = ahora;
+
+		String linea = formatear(estado);
+		if (enLugar) {
+			// Rellenamos con espacios por si la línea anterior era más larga
+			salida.print("\r" + linea + " ".repeat(Math.max(0, largoAnterior - linea.length())));
+			largoAnterior = linea.length();
+			if (estado.finalizada) salida.println();
+		} else {
+			salida.println(linea);
+		}
+		salida.flush();
+	}
+
+	/**
+	 * Da formato a una línea de avance, ej.
+	 * <code>12/40 servicios | ok 9, cerrados 2, fallidos 1 | 4.3/min | ETA 6m 30s | lento: extracción 8s | 3m 05s</code>
+	 *
+	 * Si lleva más de {@value #AVISO_SIN_AVANCE_SEGUNDOS} s sin terminar ningún servicio, lo indica al final.
+	 *
+	 * @param estado Estado a mostrar.
+	 * @return Línea de avance.
+	 */
+	static String formatear(EstadoProgreso estado) {
+		StringBuilder linea = new StringBuilder()
+				.append(estado.procesados()).append('/').append(estado.total).append(" servicios")
+				.append(" | ok ").append(estado.terminados)
+				.append(", cerrados ").append(estado.cerrados)
+				.append(", fallidos ").append(estado.fallidos)
+				.append(" | ").append(estado.serviciosPorMinuto).append("/min");
+
+		if (estado.etaSegundos != null) {
+			linea.append(" | ETA ").append(BacklogAutomation.formatearDuracion(estado.etaSegundos * 1000));
+		}
+		if (estado.pasoMasLento != null) {
+			linea.append(" | lento: ").append(estado.pasoMasLento).append(' ')
+					.append(BacklogAutomation.formatearDuracion(estado.promedioPasoMs.get(estado.pasoMasLento)));
+		}
+		linea.append(" | ").append(BacklogAutomation.formatearDuracion(estado.transcurridoSegundos * 1000));
+		if (estado.sinAvanceSegundos >= AVISO_SIN_AVANCE_SEGUNDOS) {
+			linea.append(" | sin avance hace ").append(BacklogAutomation.formatearDuracion(estado.sinAvanceSegundos * 1000));
+		}
+		return linea.toString();
+	}
+}
@@ -0,0 +1,209 @@
+package com.automation.backlog;
+
+import java.time.LocalDateTime;
+import java.util.ArrayDeque;
+import java.util.ArrayList;
+import java.util.Deque;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.Executors;
+import java.util.concurrent.ScheduledExecutorService;
+import java.util.concurrent.ScheduledFuture;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Acumula los eventos de avance que emite {@link BacklogAutomation} durante una revisión y
+ * los reparte, como {@link EstadoProgreso}, entre los oyentes registrados (consola, archivo de estado).
+ *
+ * Eventos:
+ * <ul>
+ *   <li>{@link #iniciar}: al empezar, con el total de servicios.</li>
+ *   <li>{@link #registrarPaso}: al terminar cada paso de un servicio, con su duración.</li>
+ *   <li>{@link #terminarServicio}: cuando un servicio ya no se volverá a revisar.</li>
+ *   <li>{@link #finalizar}: al terminar la revisión.</li>
+ * </ul>
+ *
+ * El ritmo (servicios por minuto) se calcula sobre los últimos {@value #VENTANA_RITMO} servicios,
+ * de modo que la estimación de tiempo restante se adapta si el portal se vuelve más lento o más rápido.
+ *
+ * Mientras la revisión está en curso, cada {@value #LATIDO_SEGUNDOS} s se vuelve a enviar el último
+ * estado con el tiempo transcurrido actualizado. Así los oyentes que descartan actualizaciones muy
+ * seguidas acaban mostrando la última, y un servicio que se queda colgado no congela la salida.
+ * Todos los métodos pueden llamarse desde varios hilos.
+ */
+public class ProgresoRevision {
+
+	public static final String PASO_NAVEGACION = "navegación";
+	public static final String PASO_ESPERA = "espera";
+	public static final String PASO_EXTRACCION = "extracción";
+	public static final String PASO_ANALISIS = "análisis";
+
+	/** Resultado de un servicio revisado y analizado. */
+	public static final String TERMINADO = "TERMINADO";
+
+	/** Resultado de un servicio cerrado, sin actividades. */
+	public static final String CERRADO = "CERRADO";
+
+	/** Resultado de un servicio que no se pudo extraer o analizar. */
+	public static final String FALLIDO = "FALLIDO";
+
+	private static final int VENTANA_RITMO = 20;
+	private static final long LATIDO_SEGUNDOS = 1;
+
+	private final List<OyenteProgreso> oyentes = new ArrayList<>();
+	private final Map<String, long[]> pasos = new LinkedHashMap<>();
+	private final Deque<Long> ultimosFinales = new ArrayDeque<>();
+	private final ScheduledExecutorService latidos = Executors.newSingleThreadScheduledExecutor(tarea -> {
+		Thread hilo = new Thread(tarea, "progreso-revision");
+		hilo.setDaemon(true);
+		return hilo;
+	});
+
+	private ControladorConcurrencia controlador;
+	private String inicio;
+	private long inicioMs;
+	private long ultimoAvanceMs;
+	private ScheduledFuture<?> latido;
+	private int total;
+	private int terminados;
+	private int cerrados;
+	private int fallidos;
+	private String ultimoServicio;
+
+	/**
+	 * Registra un oyente que recibirá cada actualización del estado.
+	 *
+	 * @param oyente Oyente a registrar.
+	 * @return Esta misma instancia, para encadenar llamadas.
+	 */
+	public synchronized ProgresoRevision agregarOyente(OyenteProgreso oyente) {
+		oyentes.add(oyente);
+		return this;
+	}
+
+	/**
+	 * Inicio de la revisión. Descarta los contadores de una revisión anterior (ej. en modo vigilancia).
+	 *
+	 * @param total Número de servicios a revisar.
+	 * @param controlador Controlador de concurrencia, para informar sesiones y pausa; puede ser null.
+	 */
+	public synchronized void iniciar(int total, ControladorConcurrencia controlador) {
+		this.total = total;
+		this.controlador = controlador;
+		this.inicioMs = System.currentTimeMillis();
+		this.ultimoAvanceMs = inicioMs;
+		this.inicio = LocalDateTime.now().withNano(0).toString();
+		this.terminados = 0;
+		this.cerrados = 0;
+		this.fallidos = 0;
+		this.ultimoServicio = null;
+		pasos.clear();
+		ultimosFinales.clear();
+		notificar(false);
+
+		if (latido != null) latido.cancel(false);
+		latido = latidos.scheduleWithFixedDelay(this::latir, LATIDO_SEGUNDOS, LATIDO_SEGUNDOS, TimeUnit.SECONDS);
+	}
+
+	/**
+	 * Un paso de la revisión de un servicio terminó.
+	 *
+	 * @param paso Nombre del paso (ej. {@link #PASO_EXTRACCION}).
+	 * @param duracionMs Duración del paso en milisegundos.
+	 */
+	public synchronized void registrarPaso(String paso, long duracionMs) {
+		long[] acumulado = pasos.computeIfAbsent(paso, k -> new long[2]);
+		acumulado[0] += duracionMs;
+		acumulado[1]++;
+	}
+
+	/**
+	 * Un servicio terminó de revisarse y no se volverá a intentar.
+	 *
+	 * @param servicio El identificador del servicio.
+	 * @param resultado {@link #TERMINADO}, {@link #CERRADO} o {@link #FALLIDO}.
+	 */
+	public synchronized void terminarServicio(String servicio, String resultado) {
+		switch (resultado) {
+			case TERMINADO -> terminados++;
+			case CERRADO -> cerrados++;
+			default -> fallidos++;
+		}
+		ultimoServicio = servicio;
+		ultimoAvanceMs = System.currentTimeMillis();
+
+		ultimosFinales.addLast(ultimoAvanceMs);
+		if (ultimosFinales.size() > VENTANA_RITMO) ultimosFinales.removeFirst();
+		notificar(false);
+	}
+
+	/**
+	 * Fin de la revisión: los oyentes reciben el estado final.
+	 */
+	public synchronized void finalizar() {
+		if (latido != null) {
+			latido.cancel(false);
+			latido = null;
+		}
+		notificar(true);
+	}
+
+	private synchronized void latir() {
+		// Un latido que llega justo después de finalizar no debe volver a poner la revisión en curso
+		if (latido != null) notificar(false);
+	}
+
+	private void notificar(boolean finalizada) {
+		EstadoProgreso estado = instantanea(finalizada);
+		for (OyenteProgreso oyente : oyentes) {
+			oyente.actualizar(estado);
+		}
+	}
+
+	private EstadoProgreso instantanea(boolean finalizada) {
+		long ahora = System.currentTimeMillis();
+		EstadoProgreso estado = new EstadoProgreso();
+		estado.estado = finalizada ? "FINALIZADA" : "EN_CURSO";
+		estado.finalizada = finalizada;
+		estado.inicio = inicio;
+		estado.actualizado = LocalDateTime.now().withNano(0).toString();
+		estado.total = total;
+		estado.terminados = terminados;
+		estado.cerrados = cerrados;
+		estado.fallidos = fallidos;
+		estado.pendientes = Math.max(0, total - estado.procesados());
+		estado.ultimoServicio = ultimoServicio;
+		estado.transcurridoSegundos = (ahora - inicioMs) / 1000;
+		estado.sinAvanceSegundos = finalizada ? 0 : (ahora - ultimoAvanceMs) / 1000;
+
+		// Ritmo sobre la ventana de los últimos servicios; al principio, sobre todo lo transcurrido
+		double porMinuto = 0;
+		if (ultimosFinales.size() >= 2 && ultimosFinales.getLast() > ultimosFinales.getFirst()) {
+			porMinuto = (ultimosFinales.size() - 1) * 60_000.0 / (ultimosFinales.getLast() - ultimosFinales.getFirst());
+		} else if (estado.procesados() > 0 && ahora > inicioMs) {
+			porMinuto = estado.procesados() * 60_000.0 / (ahora - inicioMs);
+		}
+		estado.serviciosPorMinuto = Math.round(porMinuto * 10) / 10.0;
+		if (porMinuto > 0 && !finalizada) {
+			estado.etaSegundos = Math.round(estado.pendientes * 60 / porMinuto);
+		}
+
+		estado.promedioPasoMs = new LinkedHashMap<>();
+		long mayor = -1;
+		for (Map.Entry<String, long[]> entry : pasos.entrySet()) {
+			long promedio = entry.getValue()[0] / entry.getValue()[1];
+			estado.promedioPasoMs.put(entry.getKey(), promedio);
+			if (promedio > mayor) {
+				mayor = promedio;
+				estado.pasoMasLento = entry.getKey();
+			}
+		}
+
+		if (controlador != null) {
+			estado.sesionesPermitidas = controlador.getSesionesPermitidas();
+			estado.pausaMs = controlador.getPausaMs();
+		}
+		return estado;
+	}
+}
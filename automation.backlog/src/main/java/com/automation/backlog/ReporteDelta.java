@@ -0,0 +1,220 @@
+package com.automation.backlog;
+
+import java.io.IOException;
+import java.io.InputStream;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Collection;
+import java.util.HashMap;
+import java.util.HashSet;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+
+import javax.xml.parsers.ParserConfigurationException;
+
+import org.apache.poi.openxml4j.exceptions.OpenXML4JException;
+import org.apache.poi.openxml4j.opc.OPCPackage;
+import org.apache.poi.openxml4j.opc.PackageAccess;
+import org.apache.poi.ss.usermodel.DataFormatter;
+import org.apache.poi.ss.util.CellReference;
+import org.apache.poi.util.XMLHelper;
+import org.apache.poi.xssf.eventusermodel.ReadOnlySharedStringsTable;
+import org.apache.poi.xssf.eventusermodel.XSSFReader;
+import org.apache.poi.xssf.eventusermodel.XSSFSheetXMLHandler;
+import org.apache.poi.xssf.usermodel.XSSFComment;
+import org.xml.sax.InputSource;
+import org.xml.sax.SAXException;
+import org.xml.sax.XMLReader;
+
+/**
+ * Compara los resultados de la ejecución actual con los del <code>resultado_backlog.xlsx</code> anterior.
+ *
+ * El archivo anterior se lee con la API de eventos de POI ({@link XSSFReader} + SAX), fila a fila,
+ * sin cargar el libro en memoria. De cada fila solo se conservan la clave servicio + día afectado
+ * y el analista afectado. Las filas actuales se clasifican en nuevas, modificadas o resueltas
+ * comparando únicamente el analista: no se calcula ningún resumen de la fila completa.
+ *
+ * <p>La fecha y el texto de la última nota son del servicio, no del día: se repiten en todas
+ * sus filas. Por eso no forman parte de la comparación; si no, una sola nota nueva marcaría
+ * como modificados todos los días sin gestión del servicio.
+ *
+ * <p>Las filas sin día afectado (servicios sin días sin gestión, que solo informan su última nota)
+ * no son días del backlog y quedan fuera del delta, tanto en el resultado anterior como en el actual.
+ *
+ * <p>Columnas esperadas en la hoja (las mismas que escribe {@link BacklogAutomation}):
+ * <pre>
+ * N° servicio | Dia afectado | Analista afectado | Fecha ult. nota | Ult. nota
+ * </pre>
+ */
+public class ReporteDelta {
+
+	/** La fila no existía en el resultado anterior. */
+	public static final String NUEVO = "NUEVO";
+
+	/** La fila existía y ya no aparece: el día fue gestionado o el servicio se cerró. */
+	public static final String RESUELTO = "RESUELTO";
+
+	/** La fila existe en ambos resultados, pero cambió el analista afectado. */
+	public static final String MODIFICADO = "MODIFICADO";
+
+	private static final int COLUMNAS = 5;
+
+	private final Map<String, FilaAnterior> anteriores;
+
+	private ReporteDelta(Map<String, FilaAnterior> anteriores) {
+		this.anteriores = anteriores;
+	}
+
+	/**
+	 * Lee los días sin gestión de la hoja indicada del resultado anterior.
+	 * Si el archivo no existe, el delta considerará nuevas todas las filas.
+	 *
+	 * @param archivo Ruta del resultado anterior.
+	 * @param hoja Nombre de la hoja con los resultados (ej. "Backlog").
+	 * @return Reporte listo para comparar con los resultados actuales.
+	 * @throws IOException si el archivo existe pero no se puede leer.
+	 */
+	public static ReporteDelta leerAnterior(Path archivo, String hoja) throws IOException {
+		Map<String, FilaAnterior> filas = new HashMap<>();
+		if (!Files.exists(archivo)) {
+			return new ReporteDelta(filas);
+		}
+
+		OPCPackage paquete = null;
+		try {
+			paquete = OPCPackage.open(archivo.toFile(), PackageAccess.READ);
+			XSSFReader reader = new XSSFReader(paquete);
+			ReadOnlySharedStringsTable textos = new ReadOnlySharedStringsTable(paquete);
+
+			XSSFReader.SheetIterator hojas = (XSSFReader.SheetIterator) reader.getSheetsData();
+			while (hojas.hasNext()) {
+				try (InputStream contenido = hojas.next()) {
+					if (!hoja.equals(hojas.getSheetName())) continue;
+
+					XMLReader parser = XMLHelper.newXMLReader();
+					parser.setContentHandler(new XSSFSheetXMLHandler(
+							reader.getStylesTable(), null, textos, new LectorFilas(filas), new DataFormatter(), false));
+					parser.parse(new InputSource(contenido));
+				}
+			}
+		} catch (OpenXML4JException | SAXException | ParserConfigurationException e) {
+			throw new IOException("No se pudo leer el resultado anterior '" + archivo + "'", e);
+		} finally {
+			// El paquete se abrió en modo lectura: se descarta sin guardar
+			if (paquete != null) paquete.revert();
+		}
+		return new ReporteDelta(filas);
+	}
+
+	/**
+	 * Compara las filas actuales con las anteriores.
+	 *
+	 * Solo se marcan como resueltas las filas de servicios revisados en esta ejecución, para
+	 * no reportar como resueltos los servicios que simplemente se quitaron de la configuración.
+	 * Las filas sin día afectado se ignoran.
+	 *
+	 * @param actuales Filas de la ejecución actual [servicio, día, analista, fecha ult. nota, ult. nota].
+	 * @param serviciosRevisados Servicios incluidos en esta ejecución.
+	 * @return Filas del delta [cambio, servicio, día, analista, fecha ult. nota, ult. nota].
+	 */
+	public List<String[]> comparar(List<String[]> actuales, Collection<String> serviciosRevisados) {
+		List<String[]> delta = new ArrayList<>();
+		Set<String> vistas = new HashSet<>();
+
+		for (String[] fila : actuales) {
+			if (fila[1].isEmpty()) continue;
+			String clave = clave(fila[0], fila[1]);
+			vistas.add(clave);
+
+			FilaAnterior anterior = anteriores.get(clave);
+			if (anterior == null) {
+				delta.add(conCambio(NUEVO, fila));
+			} else if (!anterior.analista.equals(fila[2])) {
+				delta.add(conCambio(MODIFICADO, fila));
+			}
+		}
+
+		Set<String> revisados = new HashSet<>(serviciosRevisados);
+		for (Map.Entry<String, FilaAnterior> entry : anteriores.entrySet()) {
+			FilaAnterior anterior = entry.getValue();
+			if (!vistas.contains(entry.getKey()) && revisados.contains(anterior.servicio)) {
+				delta.add(new String[] { RESUELTO, anterior.servicio, anterior.dia, anterior.analista, "", "" });
+			}
+		}
+		return delta;
+	}
+
+	private static String[] conCambio(String cambio, String[] fila) {
+		String[] resultado = new String[fila.length + 1];
+		resultado[0] = cambio;
+		System.arraycopy(fila, 0, resultado, 1, fila.length);
+		return resultado;
+	}
+
+	private static String clave(String servicio, String dia) {
+		return servicio + '\u0000' + dia;
+	}
+
+	/**
+	 * Datos comparados de una fila del resultado anterior.
+	 */
+	private static class FilaAnterior {
+		private final String servicio;
+		private final String dia;
+		private final String analista;
+
+		private FilaAnterior(String[] fila) {
+			this.servicio = fila[0];
+			this.dia = fila[1];
+			this.analista = fila[2].intern(); // los analistas se repiten mucho entre filas
+		}
+	}
+
+	/**
+	 * Recibe los eventos SAX de la hoja y guarda cada fila con día afectado.
+	 */
+	private static class LectorFilas implements XSSFSheetXMLHandler.SheetContentsHandler {
+		private final Map<String, FilaAnterior> filas;
+		private final String[] fila = new String[COLUMNAS];
+		private int numeroFila;
+
+		private LectorFilas(Map<String, FilaAnterior> filas) {
+			this.filas = filas;
+		}
+
+		@Override
+		public void startRow(int rowNum) {
+			numeroFila = rowNum;
+			Arrays.fill(fila, "");
+		}
+
+		@Override
+		public void endRow(int rowNum) {
+			// La fila 0 es la cabecera; las filas sin día afectado no entran en el delta
+			if (numeroFila == 0 || fila[0].isEmpty() || fila[1].isEmpty()) return;
+			filas.put(clave(fila[0], fila[1]), new FilaAnterior(fila));
+		}
+
+		@Override
+		public void cell(String cellReference, String formattedValue, XSSFComment comment) {
+			int columna = new CellReference(cellReference).getCol();
+			if (columna < COLUMNAS && formattedValue != null) {
+				fila[columna] = formattedValue;
+			}
+		}
+	}
+
+	/**
+	 * Cuenta las filas del delta con un tipo de cambio.
+	 *
+	 * @param delta Filas del delta.
+	 * @param cambio Tipo de cambio a contar ({@link #NUEVO}, {@link #RESUELTO} o {@link #MODIFICADO}).
+	 * @return Número de filas con ese tipo de cambio.
+	 */
+	public static long contar(List<String[]> delta, String cambio) {
+		return delta.stream().filter(fila -> cambio.equals(fila[0])).count();
+	}
+}
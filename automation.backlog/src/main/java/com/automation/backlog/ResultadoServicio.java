@@ -0,0 +1,54 @@
+package com.automation.backlog;
+
+import java.util.List;
+
+/**
+ * Resultado de la revisión de un servicio, tal como lo publica un trabajador en su archivo de
+ * resultados (una línea JSON por servicio) y lo lee el coordinador para unirlo al resultado final.
+ *
+ * Ejemplo:
+ * <pre>
+ * {"servicio":"IN123","resultado":"TERMINADO","filas":[["IN123","12/07/25","APEREZ","11/07/25 09:00:00","Nota..."]],
+ *  "extraccionMs":8200,"analisisMs":15,"cerrado":false}
+ * </pre>
+ *
+ * Los tiempos permiten al coordinador actualizar su propio historial de tiempos, con el que ordena
+ * los lotes de la siguiente revisión.
+ */
+public class ResultadoServicio {
+
+	/** Identificador del servicio. */
+	public String servicio;
+
+	/** {@link ProgresoRevision#TERMINADO}, {@link ProgresoRevision#CERRADO} o {@link ProgresoRevision#FALLIDO}. */
+	public String resultado;
+
+	/** Filas de backlog del servicio (vacío si está cerrado o falló). */
+	public List<String[]> filas;
+
+	/** Duración de la extracción en milisegundos; null si no se llegó a medir (ej. el servicio falló). */
+	public Long extraccionMs;
+
+	/** Duración del análisis en milisegundos; null si no se llegó a medir. */
+	public Long analisisMs;
+
+	/** Si el portal confirmó que el servicio está cerrado (y no solo que la espera se agotó). */
+	public boolean cerrado;
+
+	public ResultadoServicio() {
+	}
+
+	public ResultadoServicio(String servicio, String resultado, List<String[]> filas) {
+		this.servicio = servicio;
+		this.resultado = resultado;
+		this.filas = filas;
+	}
+
+	public ResultadoServicio(String servicio, String resultado, List<String[]> filas,
+			long extraccionMs, long analisisMs, boolean cerrado) {
+		this(servicio, resultado, filas);
+		this.extraccionMs = extraccionMs;
+		this.analisisMs = analisisMs;
+		this.cerrado = cerrado;
+	}
+}
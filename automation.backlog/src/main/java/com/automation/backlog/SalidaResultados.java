@@ -0,0 +1,18 @@
+package com.automation.backlog;
+
+/**
+ * Recibe el resultado de cada servicio en cuanto termina de revisarse, sin esperar al final
+ * de la revisión (ej. un trabajador que los transmite al coordinador).
+ *
+ * Las llamadas llegan desde los hilos de las sesiones, por lo que la implementación debe ser segura
+ * para varios hilos.
+ */
+public interface SalidaResultados {
+
+	/**
+	 * Publica el resultado de un servicio.
+	 *
+	 * @param resultado Resultado del servicio.
+	 */
+	void publicar(ResultadoServicio resultado);
+}
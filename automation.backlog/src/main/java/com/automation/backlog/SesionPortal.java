@@ -0,0 +1,659 @@
+package com.automation.backlog;
+
+import java.time.Duration;
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.HashSet;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+import java.util.function.Function;
+
+import org.openqa.selenium.By;
+import org.openqa.selenium.InvalidSelectorException;
+import org.openqa.selenium.JavascriptExecutor;
+import org.openqa.selenium.Keys;
+import org.openqa.selenium.StaleElementReferenceException;
+import org.openqa.selenium.TimeoutException;
+import org.openqa.selenium.WebDriver;
+import org.openqa.selenium.WebDriverException;
+import org.openqa.selenium.WebElement;
+import org.openqa.selenium.WindowType;
+import org.openqa.selenium.support.ui.ExpectedConditions;
+import org.openqa.selenium.support.ui.WebDriverWait;
+
+/**
+ * Sesión iniciada en el portal de la mesa de servicio sobre un WebDriver.
+ *
+ * Encapsula la interacción con la página: inicio de sesión, navegación a la cola de cada tipo
+ * de servicio según su {@link PerfilPagina} y extracción de las actividades de un servicio.
+ * Cada sesión trabaja en su propio navegador o en una pestaña de otro (ver {@link #abrirPestana}),
+ * por lo que varias sesiones pueden trabajar en paralelo desde hilos distintos; una misma sesión
+ * no debe usarse desde dos hilos a la vez.
+ *
+ * <p>Las pestañas de un navegador comparten un único WebDriver, que solo atiende a una pestaña a la
+ * vez. Por eso cada acción sobre la página toma el navegador, activa la pestaña (y el iframe) de la
+ * sesión y lo suelta al terminar; durante las esperas el navegador queda libre, de modo que las
+ * demás pestañas avanzan mientras esta carga.
+ */
+public class SesionPortal {
+
+	private static final int FALLOS_ENLACE_PARA_DESCARTAR = 3;
+	private static final String SCRIPT_RESTAURAR_COLA = "arguments[0].contentWindow.location.replace(arguments[0].src);";
+	private static final String SCRIPT_ELEMENTO_VISIBLE = """
+			var candidatos = document.querySelectorAll(arguments[0]);
+			for (var i = 0; i < candidatos.length; i++) {
+				var e = candidatos[i];
+				if (e.disabled || e.getClientRects().length === 0 || getComputedStyle(e).visibility === 'hidden') continue;
+				if (arguments[1] === null || (e.innerText || e.textContent || '').indexOf(arguments[1]) !== -1) return e;
+			}
+			return null;
+			""";
+	private static final String SCRIPT_ELEMENTO_POSICION = """
+			var e = document.querySelectorAll(arguments[0])[arguments[1] - 1];
+			return e && e.getClientRects().length > 0 ? e : null;
+			""";
+	private static final String SCRIPT_FILAS_COLA = """
+			var filas = document.querySelectorAll(arguments[0]), resultado = [];
+			var maxima = Math.max(arguments[2], arguments[3]);
+			for (var i = 0; i < filas.length; i++) {
+				var celdas = filas[i].querySelectorAll(arguments[1]);
+				if (celdas.length < maxima) continue;
+				resultado.push([celdas[arguments[2] - 1].textContent.trim(), celdas[arguments[3] - 1].textContent.trim()]);
+			}
+			return resultado;
+			""";
+
+	private final WebDriver driver;
+	private final int waitSeconds;
+	private final Navegador navegador;
+	private final String ventana;
+	private final boolean pestana;
+	private final ExtractorJavascript extractorJs;
+	private final ExtractorRed extractorRed;
+	private PerfilPagina colaActual;
+	private WebElement marco;
+	private final Set<PerfilPagina> detallesAbiertos = new HashSet<>();
+	private boolean enlaceDirecto;
+	private final Map<PerfilPagina, Integer> fallosEnlace = new HashMap<>();
+	private final Set<PerfilPagina> enlacesValidados = new HashSet<>();
+	private final Set<PerfilPagina> bloquesVerificados = new HashSet<>();
+	private final Set<PerfilPagina> cancelacionesVerificadas = new HashSet<>();
+
+	/**
+	 * Constructor de SesionPortal.
+	 *
+	 * @param driver WebDriver de la sesión.
+	 * @param modoExtraccion Modo de extracción configurado ("dom", "js" o "cdp").
+	 * @param waitSeconds Segundos máximos de espera por cada componente de la página.
+	 */
+	public SesionPortal(WebDriver driver, String modoExtraccion, int waitSeconds) {
+		this.driver = driver;
+		this.waitSeconds = waitSeconds;
+		this.navegador = new Navegador();
+		this.ventana = driver.getWindowHandle();
+		this.pestana = false;
+
+		// En modo "js" cada servicio se extrae con un único script asíncrono
+		this.extractorJs = "js".equalsIgnoreCase(modoExtraccion) ? new ExtractorJavascript(driver, waitSeconds) : null;
+
+		// En modo "cdp" las actividades se leen de las respuestas del portal, capturadas con DevTools
+		ExtractorRed red = null;
+		if ("cdp".equalsIgnoreCase(modoExtraccion)) {
+			try {
+				red = new ExtractorRed(driver, waitSeconds);
+			} catch (WebDriverException e) {
+				System.err.println("No se pudo activar la captura de red (" + e.getMessage() + "); se usará el modo \"dom\".");
+			}
+		}
+		this.extractorRed = red;
+	}
+
+	/**
+	 * Constructor de una sesión en una pestaña adicional de un navegador ya abierto.
+	 * Las pestañas siempre extraen en modo "dom".
+	 */
+	private SesionPortal(WebDriver driver, Navegador navegador, String ventana, int waitSeconds) {
+		this.driver = driver;
+		this.waitSeconds = waitSeconds;
+		this.navegador = navegador;
+		this.ventana = ventana;
+		this.pestana = true;
+		this.extractorJs = null;
+		this.extractorRed = null;
+	}
+
+	/**
+	 * Abre la página del portal e inicia sesión.
+	 *
+	 * @param url URL de la página de inicio de sesión.
+	 * @param user Nombre de usuario.
+	 * @param passw Contraseña.
+	 */
+	public void iniciarSesion(String url, String user, String passw) {
+		enVentana(() -> {
+			// Abrimos la pagina
+			driver.get(url);
+
+			// Una pestaña comparte las cookies de su navegador: si el portal ya la reconoce, no hay formulario
+			if (pestana && driver.findElements(By.id("LoginUsername")).isEmpty()) return;
+
+			// Iniciamos sesion
+			driver.findElement(By.id("LoginUsername")).sendKeys(user);
+			driver.findElement(By.id("LoginPassword")).sendKeys(passw);
+			driver.findElement(By.id("loginBtn")).click();
+		});
+	}
+
+	/**
+	 * Abre una nueva pestaña en el navegador de esta sesión y entra al portal desde ella.
+	 * La pestaña comparte las cookies (y la sesión iniciada) del navegador, por lo que cuesta mucha
+	 * menos memoria que abrir otro navegador.
+	 *
+	 * @param url URL de la página de inicio de sesión.
+	 * @param user Nombre de usuario, por si el portal vuelve a pedirlo.
+	 * @param passw Contraseña, por si el portal vuelve a pedirla.
+	 * @return Sesión de la nueva pestaña.
+	 */
+	public SesionPortal abrirPestana(String url, String user, String passw) {
+		SesionPortal nueva = conDriver(d -> {
+			d.switchTo().newWindow(WindowType.TAB);
+			SesionPortal sesion = new SesionPortal(d, navegador, d.getWindowHandle(), waitSeconds);
+			sesion.enlaceDirecto = enlaceDirecto;
+			navegador.activa = sesion;
+			return sesion;
+		});
+		nueva.iniciarSesion(url, user, passw);
+		return nueva;
+	}
+
+	/**
+	 * Indica si los servicios se abren por el {@link PerfilPagina#enlaceDetalle enlace de detalle}
+	 * de su perfil, cuando lo define. Las pestañas que se abran después heredan el valor.
+	 *
+	 * @param enlaceDirecto true para usar el enlace de detalle; false para buscar siempre con el formulario.
+	 */
+	public void setEnlaceDirecto(boolean enlaceDirecto) {
+		this.enlaceDirecto = enlaceDirecto;
+	}
+
+	/**
+	 * Cierra la sesión: la pestaña si es una pestaña adicional, o el navegador completo en otro caso.
+	 * Las pestañas de un navegador deben cerrarse antes que el propio navegador.
+	 */
+	public void cerrar() {
+		if (!pestana) {
+			driver.quit();
+			return;
+		}
+		conDriver(d -> {
+			d.close();
+			navegador.activa = null;
+			return null;
+		});
+	}
+
+	/**
+	 * Navega a la cola del perfil indicado, salvo que la sesión ya esté en ella,
+	 * y valida los selectores del perfil contra la página. Si al navegar el iframe de la cola sigue
+	 * en un detalle abierto por enlace, lo devuelve antes a su página.
+	 *
+	 * @param perfil Perfil de página de la cola.
+	 * @return true si fue necesario navegar; false si la sesión ya estaba en la cola.
+	 * @throws IllegalStateException si los selectores del perfil no coinciden con la página.
+	 */
+	public boolean abrirCola(PerfilPagina perfil) {
+		if (perfil == colaActual) return false;
+
+		// Esperamos a que cargue la pagina
+		// Cuando haya cargado, nos desplazamos a la cola
+		clic(esperarElemento(perfil.getMenu()));
+		clic(esperarElemento(perfil.getSubmenu()));
+		if (detallesAbiertos.contains(perfil)) restaurarCola(perfil);
+
+		// Cuando cargue el panel, vamos a las opciones de busqueda
+		// (puede haber otra cola abierta en la sesión, así que tomamos el botón visible)
+		clic(esperarElemento(perfil.botonBuscar, null));
+
+		// Comprobamos que los selectores del perfil siguen siendo válidos en la página
+		validarPerfil(perfil);
+		this.colaActual = perfil;
+		return true;
+	}
+
+	/**
+	 * Vuelve a abrir la cola del perfil para refrescarla y lee, de su vista de lista, la fecha de
+	 * última actualización de cada servicio. Todas las filas se leen con un único script.
+	 * Al terminar, la sesión queda en las opciones de búsqueda de la cola, lista para extraer,
+	 * con los selectores del perfil validados como en {@link #abrirCola(PerfilPagina)}.
+	 *
+	 * @param perfil Perfil de página de la cola; debe {@link PerfilPagina#admiteVigilancia() admitir vigilancia}.
+	 * @return Mapa con el número de servicio (en mayúsculas) como clave y su última actualización como valor.
+	 * @throws IllegalStateException si los selectores del perfil no coinciden con la página.
+	 */
+	@SuppressWarnings("unchecked")
+	public Map<String, String> leerCola(PerfilPagina perfil) {
+		this.colaActual = null;
+		clic(esperarElemento(perfil.getMenu()));
+		clic(esperarElemento(perfil.getSubmenu()));
+
+		// La vista de lista está en el iframe de esta cola: si quedó en un detalle, no mostraría las filas
+		if (detallesAbiertos.contains(perfil)) restaurarCola(perfil);
+		WebElement botonBuscar = esperarElemento(perfil.botonBuscar, null);
+
+		Map<String, String> marcas = new HashMap<>();
+		entrarMarco(esperarElemento(perfil.getIframe()));
+		try {
+			Object filas = conDriver(d -> ((JavascriptExecutor) d).executeScript(SCRIPT_FILAS_COLA,
+					perfil.filasCola, perfil.celdasCola, perfil.columnaServicio, perfil.columnaActualizacion));
+			for (List<String> fila : (List<List<String>>) filas) {
+				marcas.put(fila.get(0).toUpperCase(), fila.get(1));
+			}
+		} finally {
+			salirMarco();
+		}
+
+		// Dejamos la cola lista para buscar servicios, como abrirCola
+		clic(botonBuscar);
+		validarPerfil(perfil);
+		this.colaActual = perfil;
+		return marcas;
+	}
+
+	/**
+	 * Busca un servicio en la cola actual y obtiene sus actividades.
+	 * Al terminar, vuelve al contexto principal y cierra el detalle para poder buscar otro.
+	 *
+	 * <p>Si el enlace directo está activado y el perfil define un {@link PerfilPagina#enlaceDetalle enlace
+	 * de detalle}, primero se abre el formulario del servicio directamente en el iframe, sin pasar por el
+	 * formulario de búsqueda ni por el botón de cancelar. Si la página no carga, se usa la búsqueda; tras
+	 * {@value #FALLOS_ENLACE_PARA_DESCARTAR} fallos seguidos el enlace se descarta para esta sesión, aunque
+	 * haya funcionado antes. Una vez que el enlace ha funcionado, un detalle que carga sin pestañas se
+	 * toma como un servicio sin actividades, sin volver a buscarlo.
+	 *
+	 * @param servicio El identificador del servicio a buscar.
+	 * @return Datos del servicio; {@link DatosServicio#ok} es false si no tiene actividades (ej. está cerrado).
+	 * @throws org.openqa.selenium.WebDriverException si el portal no responde como se espera.
+	 */
+	public DatosServicio extraer(String servicio) {
+		PerfilPagina perfil = colaActual;
+
+		// El script del modo "js" hace su propia búsqueda dentro de la página
+		boolean porEnlace = enlaceDirecto && !scriptActivo() && perfil.getEnlaceDetalle(servicio) != null && !enlaceDescartado(perfil);
+		if (porEnlace) {
+			DatosServicio datos = extraerPorEnlace(servicio, perfil);
+			if (datos != null) return datos;
+		}
+
+		// La búsqueda parte de la cola: si su iframe quedó en un detalle, volvemos a abrirla
+		if (detallesAbiertos.contains(perfil)) {
+			this.colaActual = null;
+			abrirCola(perfil);
+		}
+		DatosServicio datos = buscar(servicio, perfil);
+
+		// El enlace no abrió el detalle. Mientras no ha funcionado nunca, solo cuenta como fallo si la
+		// búsqueda sí encuentra el servicio; después, cuenta siempre, aunque haya funcionado antes
+		if (porEnlace && (datos.ok || enlacesValidados.contains(perfil))) {
+			int fallos = fallosEnlace.merge(perfil, 1, Integer::sum);
+			if (enlaceDescartado(perfil)) {
+				System.err.println("El enlace de detalle del perfil '" + perfil.nombre + "' falló " + fallos
+						+ " veces seguidas; se usará el formulario de búsqueda.");
+			}
+		}
+		return datos;
+	}
+
+	/**
+	 * Busca un servicio con el formulario de búsqueda de la cola y cierra su detalle al terminar.
+	 *
+	 * @param servicio El identificador del servicio a buscar.
+	 * @param perfil Perfil de página de la cola.
+	 * @return Datos del servicio.
+	 */
+	private DatosServicio buscar(String servicio, PerfilPagina perfil) {
+		// Localiza el iframe dentro del tab
+		entrarMarco(esperarElemento(perfil.getIframe()));
+
+		DatosServicio datos = null;
+		try {
+			// Buscamos el servicio y consultamos sus actividades
+			datos = leerActividades(servicio, perfil);
+			return datos;
+		} finally {
+			// Vuelve al contexto principal después de interactuar
+			salirMarco();
+
+			// Salimos del servicio para poder buscar otro
+			try {
+				clic(esperarElemento(perfil.botonCancelar, perfil.textoBotonCancelar));
+			} catch (TimeoutException e) {
+				// Con el detalle a la vista, un botón que no aparece es un selector que no coincide
+				if (datos != null && datos.ok && !cancelacionesVerificadas.contains(perfil)) {
+					throw perfilNoCoincide(perfil, List.of("botonCancelar: no se encontró en el detalle"));
+				}
+				throw e;
+			}
+			if (datos != null && datos.ok) cancelacionesVerificadas.add(perfil);
+		}
+	}
+
+	/**
+	 * Abre el formulario de detalle del servicio navegando el iframe de la cola a su enlace directo
+	 * y lee sus actividades. El iframe queda en el detalle; el siguiente enlace lo reemplaza.
+	 *
+	 * @param servicio El identificador del servicio.
+	 * @param perfil Perfil de página de la cola.
+	 * @return Datos del servicio, o null si la página no cargó o, mientras el enlace no ha funcionado
+	 *         nunca, si cargó sin las pestañas del formulario.
+	 */
+	private DatosServicio extraerPorEnlace(String servicio, PerfilPagina perfil) {
+		entrarMarco(esperarElemento(perfil.getIframe()));
+		try {
+			// Guardamos el documento actual para saber cuándo lo reemplaza el detalle
+			WebElement anterior = conDriver(d -> d.findElement(By.tagName("html")));
+
+			boolean capturando = capturaActiva(perfil);
+			if (capturando) {
+				extractorRed.iniciarCaptura(perfil);
+			}
+			enVentana(() -> ((JavascriptExecutor) driver).executeScript("window.location.href = arguments[0];",
+					perfil.getEnlaceDetalle(servicio)));
+			detallesAbiertos.add(perfil);
+
+			if (capturando) {
+				// Sin actividades solo se acepta con un enlace que ya ha funcionado: si no, puede que
+				// el enlace no abriera ningún detalle y lo comprobamos en la página
+				DatosServicio capturados = extractorRed.esperarActividades(servicio);
+				if (capturados != null && (capturados.ok || enlacesValidados.contains(perfil))) {
+					enlaceValido(perfil);
+					return capturados;
+				}
+			}
+
+			// El detalle cargó cuando el documento cambió y muestra las pestañas del formulario
+			try {
+				new WebDriverWait(driver, Duration.ofSeconds(this.waitSeconds)).until(d -> conDriver(x -> {
+					try {
+						anterior.isEnabled();
+						return null;
+					} catch (StaleElementReferenceException e) {
+						return true;
+					}
+				}));
+			} catch (TimeoutException e) {
+				return null;
+			}
+			try {
+				esperarElemento(perfil.pestanaActividades, null);
+			} catch (TimeoutException e) {
+				// Con un enlace que ya ha funcionado, una página sin pestañas es un servicio cerrado
+				// o inexistente: buscarlo con el formulario solo costaría otra espera
+				if (!enlacesValidados.contains(perfil)) return null;
+				enlaceValido(perfil);
+				DatosServicio datos = new DatosServicio();
+				datos.error = "No se encontraron actividades para " + servicio;
+				return datos;
+			}
+			enlaceValido(perfil);
+			return leerPestanaActividades(servicio, perfil);
+		} finally {
+			salirMarco();
+		}
+	}
+
+	/**
+	 * Devuelve el iframe de la cola a su página original, descartando el detalle abierto por enlace.
+	 * La cola debe estar a la vista; después hay que volver a abrir sus opciones de búsqueda.
+	 *
+	 * @param perfil Perfil de página de la cola.
+	 */
+	private void restaurarCola(PerfilPagina perfil) {
+		WebElement iframe = esperarElemento(perfil.getIframe());
+		enVentana(() -> ((JavascriptExecutor) driver).executeScript(SCRIPT_RESTAURAR_COLA, iframe));
+		detallesAbiertos.remove(perfil);
+	}
+
+	private void enlaceValido(PerfilPagina perfil) {
+		enlacesValidados.add(perfil);
+		fallosEnlace.remove(perfil);
+	}
+
+	private boolean enlaceDescartado(PerfilPagina perfil) {
+		return fallosEnlace.getOrDefault(perfil, 0) >= FALLOS_ENLACE_PARA_DESCARTAR;
+	}
+
+	private boolean scriptActivo() {
+		return extractorJs != null && extractorJs.isActivo();
+	}
+
+	private boolean capturaActiva(PerfilPagina perfil) {
+		return extractorRed != null && extractorRed.isActivo() && perfil.getPatronRespuestaDetalle() != null;
+	}
+
+	/**
+	 * Valida los selectores del perfil contra la página cargada, antes de procesar los servicios
+	 * ({@link BacklogAutomation} abre cada cola justo después de iniciar sesión para ello).
+	 * El campo de búsqueda debe existir; el resto de selectores solo debe ser sintácticamente válido,
+	 * ya que sus elementos aparecen después de buscar un servicio. Esos se comprueban con el primer
+	 * servicio abierto que muestre su detalle: si entonces no aparecen el bloque de actividades o el
+	 * botón de cancelar, el perfil no coincide con el portal y la revisión se detiene.
+	 *
+	 * @param perfil Perfil de página a validar.
+	 * @throws IllegalStateException si algún selector no es válido o el campo de búsqueda no existe.
+	 */
+	private void validarPerfil(PerfilPagina perfil) {
+		List<String> problemas = new ArrayList<>();
+
+		for (Map.Entry<String, By> selector : perfil.selectoresPagina().entrySet()) {
+			try {
+				conDriver(d -> d.findElements(selector.getValue()));
+			} catch (InvalidSelectorException e) {
+				problemas.add(selector.getKey() + ": selector inválido");
+			}
+		}
+
+		try {
+			entrarMarco(esperarElemento(perfil.getIframe()));
+			esperarElemento(perfil.getCampoBusqueda());
+
+			for (Map.Entry<String, By> selector : perfil.selectoresIframe().entrySet()) {
+				try {
+					conDriver(d -> d.findElements(selector.getValue()));
+				} catch (InvalidSelectorException e) {
+					problemas.add(selector.getKey() + ": selector inválido");
+				}
+			}
+		} catch (TimeoutException e) {
+			problemas.add("No se encontró el iframe de la cola o el campo de búsqueda");
+		} finally {
+			salirMarco();
+		}
+
+		if (!problemas.isEmpty()) {
+			throw perfilNoCoincide(perfil, problemas);
+		}
+	}
+
+	private static IllegalStateException perfilNoCoincide(PerfilPagina perfil, List<String> problemas) {
+		return new IllegalStateException("El perfil de página '" + perfil.nombre + "' no coincide con el portal: " + problemas);
+	}
+
+	/**
+	 * Busca un servicio desde el iframe de la cola y devuelve sus actividades.
+	 * Según la configuración, usa la interacción paso a paso con el DOM o un único script asíncrono.
+	 *
+	 * @param servicio El identificador del servicio a buscar.
+	 * @param perfil Perfil de página de la cola.
+	 * @return Datos del servicio.
+	 */
+	private DatosServicio leerActividades(String servicio, PerfilPagina perfil) {
+		boolean respaldoScript = false;
+		if (scriptActivo()) {
+			// Una sola llamada: búsqueda, espera y lectura ocurren dentro de la página
+			DatosServicio datos = conDriver(d -> extractorJs.extraer(servicio, perfil));
+
+			// Mientras el script no haya funcionado una vez, una espera agotada puede deberse a que
+			// el portal ignoró su búsqueda: repetimos el servicio con la interacción paso a paso
+			if (!(datos.tiempoAgotado || datos.sinPestana) || extractorJs.isValidado()) return datos;
+			respaldoScript = true;
+		}
+
+		// Localiza el input dentro del iframe
+		WebElement input = esperarElemento(perfil.getCampoBusqueda());
+
+		// En modo "cdp" empezamos a capturar las respuestas antes de enviar la búsqueda
+		boolean capturando = capturaActiva(perfil);
+		if (capturando) {
+			extractorRed.iniciarCaptura(perfil);
+		}
+
+		// Ingresa el n° de servicio y le damos enter
+		enVentana(() -> {
+			input.clear();
+			input.sendKeys(servicio);
+			input.click();
+			input.sendKeys(Keys.ENTER);
+		});
+
+		if (capturando) {
+			// Sin esperar a que la página muestre el detalle ni cambiar de pestaña. Con la captura ya
+			// reconocida en la cola, un servicio sin respuesta vuelve sin actividades y no espera otra vez
+			DatosServicio capturados = extractorRed.esperarActividades(servicio);
+			if (capturados != null) return capturados;
+		}
+		DatosServicio datos = leerPestanaActividades(servicio, perfil);
+		if (respaldoScript) extractorJs.registrarRespaldo(datos.ok);
+		return datos;
+	}
+
+	/**
+	 * Abre la pestaña de actividades del formulario de detalle y lee su texto.
+	 *
+	 * @param servicio El identificador del servicio.
+	 * @param perfil Perfil de página de la cola.
+	 * @return Datos del servicio.
+	 */
+	private DatosServicio leerPestanaActividades(String servicio, PerfilPagina perfil) {
+		DatosServicio datos = new DatosServicio();
+		try {
+			// Una vez que nos haya cargado la información, vamos a consultar las actividades
+			clic(esperarElemento(perfil.pestanaActividades, perfil.textoPestanaActividades));
+		} catch (TimeoutException e) {
+			// Si el servicio ya está cerrado, no tendrá actividades que consultar. Un portal que no
+			// carga falla antes, al esperar el iframe o el campo de búsqueda
+			datos.sinPestana = true;
+			datos.error = "No se encontraron actividades para " + servicio;
+			return datos;
+		}
+
+		try {
+			WebElement activitiesReadOnly = esperarElemento(perfil.bloqueActividades, perfil.posicionActividades);
+			datos.texto = conDriver(d -> activitiesReadOnly.getText());
+			datos.ok = true;
+			bloquesVerificados.add(perfil);
+		} catch (TimeoutException e) {
+			// Con la pestaña abierta, el bloque debe existir: si nunca se ha encontrado, el selector no coincide
+			if (!bloquesVerificados.contains(perfil)) {
+				throw perfilNoCoincide(perfil, List.of("bloqueActividades/posicionActividades: no se encontró en la pestaña de actividades"));
+			}
+			datos.tiempoAgotado = true;
+			datos.error = "No se encontraron actividades para " + servicio;
+		}
+		return datos;
+	}
+
+	/**
+	 * Espera hasta que un componente esté disponible y retornable mediante su selector.
+	 *
+	 * @param selector Selector compilado del componente a esperar.
+	 * @return WebElement listo para interactuar.
+	 */
+	private WebElement esperarElemento(By selector) {
+		WebDriverWait wait = new WebDriverWait(driver, Duration.ofSeconds(this.waitSeconds));
+		return wait.until(d -> conDriver(ExpectedConditions.elementToBeClickable(selector)));
+	}
+
+	/**
+	 * Espera hasta que uno de los componentes del selector, visible y habilitado, contenga el texto indicado.
+	 * Los candidatos se filtran dentro de la página, con una sola llamada a WebDriver por intento.
+	 *
+	 * @param selectorCss Selector CSS de los componentes candidatos.
+	 * @param texto Texto que debe contener el componente; si es null se toma el primero.
+	 * @return WebElement listo para interactuar.
+	 */
+	private WebElement esperarElemento(String selectorCss, String texto) {
+		WebDriverWait wait = new WebDriverWait(driver, Duration.ofSeconds(this.waitSeconds));
+		return wait.until(d -> conDriver(x -> (WebElement) ((JavascriptExecutor) x).executeScript(SCRIPT_ELEMENTO_VISIBLE, selectorCss, texto)));
+	}
+
+	/**
+	 * Espera hasta que exista y sea visible el componente en la posición indicada del selector,
+	 * con una sola llamada a WebDriver por intento.
+	 *
+	 * @param selectorCss Selector CSS de los componentes candidatos.
+	 * @param posicion Posición (base 1) del componente buscado.
+	 * @return WebElement listo para interactuar.
+	 */
+	private WebElement esperarElemento(String selectorCss, int posicion) {
+		WebDriverWait wait = new WebDriverWait(driver, Duration.ofSeconds(this.waitSeconds));
+		return wait.until(d -> conDriver(x -> (WebElement) ((JavascriptExecutor) x).executeScript(SCRIPT_ELEMENTO_POSICION, selectorCss, posicion)));
+	}
+
+	/**
+	 * Ejecuta una acción sobre la página de esta sesión. Toma el navegador y, si otra pestaña lo
+	 * estaba usando, vuelve a la pestaña y al iframe de esta sesión antes de ejecutarla.
+	 *
+	 * @param accion Acción a ejecutar con el WebDriver.
+	 * @return Resultado de la acción.
+	 */
+	private <T> T conDriver(Function<WebDriver, T> accion) {
+		synchronized (navegador) {
+			if (navegador.activa != this) {
+				driver.switchTo().window(ventana);
+				if (marco != null) driver.switchTo().frame(marco);
+				navegador.activa = this;
+			}
+			return accion.apply(driver);
+		}
+	}
+
+	private void enVentana(Runnable accion) {
+		conDriver(d -> {
+			accion.run();
+			return null;
+		});
+	}
+
+	private void clic(WebElement elemento) {
+		enVentana(elemento::click);
+	}
+
+	/**
+	 * Entra en el iframe indicado y lo recuerda, para volver a él si otra pestaña toma el navegador.
+	 */
+	private void entrarMarco(WebElement iframe) {
+		conDriver(d -> {
+			d.switchTo().frame(iframe);
+			this.marco = iframe;
+			return null;
+		});
+	}
+
+	private void salirMarco() {
+		conDriver(d -> {
+			d.switchTo().defaultContent();
+			this.marco = null;
+			return null;
+		});
+	}
+
+	/**
+	 * Navegador compartido por las sesiones de sus pestañas. Es también el candado que
+	 * toma cada sesión para usar el WebDriver.
+	 */
+	private static class Navegador {
+		/** Sesión cuya pestaña (e iframe) tiene el foco del WebDriver. */
+		private SesionPortal activa;
+	}
+}
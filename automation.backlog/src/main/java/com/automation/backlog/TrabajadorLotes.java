@@ -0,0 +1,212 @@
+package com.automation.backlog;
+
+import java.io.BufferedWriter;
+import java.io.IOException;
+import java.io.UncheckedIOException;
+import java.net.InetAddress;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.StandardCopyOption;
+import java.nio.file.StandardOpenOption;
+import java.util.function.Supplier;
+
+import org.openqa.selenium.WebDriver;
+
+import com.fasterxml.jackson.databind.ObjectMapper;
+
+/**
+ * Trabajador del modo coordinador/trabajador: toma lotes de servicios de una {@link ColaLotes},
+ * los revisa con su propio {@link BacklogAutomation} y transmite el resultado de cada servicio
+ * en cuanto termina, una línea JSON por servicio.
+ *
+ * Mientras revisa un lote renueva su arrendamiento como mucho cada {@value #RENOVACION_SEGUNDOS}
+ * segundos, pero solo mientras avanza: al publicar un resultado o con el avance de la revisión, si
+ * no lleva más de {@value #SIN_AVANCE_MAXIMO_SEGUNDOS} segundos sin terminar ningún servicio. Si el
+ * trabajador muere o se cuelga, el coordinador deja de ver renovaciones y devuelve el lote a la cola.
+ * Si al renovar descubre que el lote ya fue reasignado, deja de revisarlo.
+ *
+ * <p>La configuración compartida no incluye credenciales: el trabajador recibe las suyas al iniciar.
+ * Las sesiones en el portal (la principal y las adicionales) se abren una sola vez y se reutilizan
+ * para todos los lotes. El trabajador termina cuando el coordinador marca el fin de la revisión.
+ */
+public class TrabajadorLotes {
+
+	/** Cada cuánto se renueva el arrendamiento del lote en curso. */
+	public static final int RENOVACION_SEGUNDOS = 15;
+
+	/** Tiempo sin terminar ningún servicio a partir del cual el trabajador deja de renovar su lote. */
+	public static final int SIN_AVANCE_MAXIMO_SEGUNDOS = 120;
+
+	private static final long ESPERA_SIN_LOTES_MS = 2_000;
+
+	private final ObjectMapper mapper = new ObjectMapper();
+	private final ColaLotes cola;
+	private final String id;
+
+	/**
+	 * Constructor de TrabajadorLotes.
+	 *
+	 * @param directorio Directorio de la cola de trabajo compartida con el coordinador.
+	 * @throws IOException si no se puede abrir la cola.
+	 */
+	public TrabajadorLotes(Path directorio) throws IOException {
+		this.cola = new ColaLotes(directorio);
+		this.id = identificador();
+	}
+
+	/**
+	 * Revisa lotes hasta que el coordinador marque el fin de la revisión.
+	 *
+	 * @param driver WebDriver de la sesión principal del trabajador.
+	 * @param fabricaDriver Fábrica de WebDrivers para sesiones adicionales; puede ser null.
+	 * @param user Usuario del portal de este trabajador.
+	 * @param passw Contraseña del portal de este trabajador.
+	 * @return Mensaje de resultado indicando éxito o error.
+	 * @throws IOException si no se puede leer la configuración o escribir en la cola.
+	 */
+	public String ejecutar(WebDriver driver, Supplier<WebDriver> fabricaDriver, String user, String passw) throws IOException {
+		System.out.println("Trabajador '" + id + "' esperando lotes en '" + cola.getArchivoTrabajo().getParent() + "'...");
+
+		// Cada trabajador guarda su Excel, historial de tiempos y estado en su propia carpeta
+		Path carpeta = Files.createDirectories(cola.getArchivoTrabajo().resolveSibling("trabajadores").resolve(id));
+		Path configPath = carpeta.resolve("config.json");
+		while (!Files.exists(cola.getArchivoTrabajo())) {
+			if (!esperar()) return resultado("Interrumpido antes de recibir trabajo");
+		}
+		Files.copy(cola.getArchivoTrabajo(), configPath, StandardCopyOption.REPLACE_EXISTING);
+		Config config = mapper.readValue(configPath.toFile(), Config.class);
+		config.user = user;
+		config.passw = passw;
+
+		// Las sesiones adicionales siguen abiertas entre lotes; se cierran al terminar el trabajador
+		BacklogAutomation automation = new BacklogAutomation(driver, fabricaDriver, config, configPath.toString());
+		automation.setConservarSesiones(true);
+		Renovador renovador = new Renovador(automation);
+		automation.agregarOyenteProgreso(renovador);
+		int lotes = 0;
+		try {
+			while (true) {
+				ColaLotes.Lote lote = cola.reclamar(id);
+				if (lote == null) {
+					if (cola.hayFin() || !esperar()) break;
+					continue;
+				}
+
+				renovador.iniciar(lote);
+				try (BufferedWriter escritor = Files.newBufferedWriter(lote.archivoResultados, StandardCharsets.UTF_8,
+						StandardOpenOption.CREATE, StandardOpenOption.APPEND)) {
+
+					// Cada servicio se publica en cuanto termina, para que el coordinador lo vea sin esperar al lote
+					automation.setServicios(lote.servicios);
+					automation.setSalidaResultados(resultado -> {
+						publicar(escritor, resultado);
+						renovador.renovar();
+					});
+					String mensaje = automation.run();
+
+					if (mensaje.contains("FINALIZADA ERROR")) {
+						// Un error de configuración se repetiría en todos los lotes: liberamos este y salimos
+						cola.devolver(lote.archivo, lote.servicios);
+						return mensaje;
+					}
+				} finally {
+					renovador.terminar();
+				}
+
+				if (!cola.terminar(lote)) {
+					System.err.println("El lote " + lote.nombre + " fue reasignado a otro trabajador; sus resultados se conservan.");
+				}
+				lotes++;
+			}
+		} finally {
+			automation.cerrarSesiones();
+		}
+		return resultado("Lotes revisados por '" + id + "': " + lotes);
+	}
+
+	private synchronized void publicar(BufferedWriter escritor, ResultadoServicio resultado) {
+		try {
+			escritor.write(mapper.writeValueAsString(resultado));
+			escritor.newLine();
+			escritor.flush();
+		} catch (IOException e) {
+			throw new UncheckedIOException(e);
+		}
+	}
+
+	/**
+	 * Renueva el arrendamiento del lote en curso mientras la revisión avanza, y la detiene si
+	 * el lote ya no pertenece al trabajador.
+	 */
+	private class Renovador implements OyenteProgreso {
+		private final BacklogAutomation automation;
+		private ColaLotes.Lote lote;
+		private long ultimaRenovacion;
+
+		private Renovador(BacklogAutomation automation) {
+			this.automation = automation;
+		}
+
+		private synchronized void iniciar(ColaLotes.Lote lote) {
+			this.lote = lote;
+			this.ultimaRenovacion = System.currentTimeMillis();
+		}
+
+		private synchronized void terminar() {
+			this.lote = null;
+		}
+
+		@Override
+		public void actualizar(EstadoProgreso estado) {
+			// Un servicio colgado no debe mantener el lote: sin avance, dejamos que venza
+			if (!estado.finalizada && estado.sinAvanceSegundos < SIN_AVANCE_MAXIMO_SEGUNDOS) renovar();
+		}
+
+		private synchronized void renovar() {
+			long ahora = System.currentTimeMillis();
+			if (lote == null || ahora - ultimaRenovacion < RENOVACION_SEGUNDOS * 1000L) return;
+			ultimaRenovacion = ahora;
+
+			if (!cola.renovar(lote.archivo)) {
+				System.err.println("\nEl lote " + lote.nombre + " fue reasignado a otro trabajador; se deja de revisar.");
+				lote = null;
+				automation.detener();
+			}
+		}
+	}
+
+	private static boolean esperar() {
+		try {
+			Thread.sleep(ESPERA_SIN_LOTES_MS);
+			return true;
+		} catch (InterruptedException e) {
+			Thread.currentThread().interrupt();
+			return false;
+		}
+	}
+
+	/**
+	 * Identificador único del trabajador: nombre del equipo y número de proceso.
+	 */
+	private static String identificador() {
+		String equipo;
+		try {
+			equipo = InetAddress.getLocalHost().getHostName();
+		} catch (IOException e) {
+			equipo = "equipo";
+		}
+		return (equipo + "-" + ProcessHandle.current().pid()).replaceAll("[^A-Za-z0-9._-]", "_");
+	}
+
+	private static String resultado(String detalle) {
+		return """
+
+		        -------------------------------
+		           TRABAJADOR FINALIZADO
+		           %s
+		        -------------------------------
+
+		        """.formatted(detalle);
+	}
+}
@@ -0,0 +1,121 @@
+/*
+ * Script asíncrono ejecutado dentro del iframe de la cola (incidentes o peticiones).
+ *
+ * Busca el servicio, espera a que el contenido de la pestaña Actividades esté disponible
+ * y devuelve, en un único JSON, el texto crudo de las actividades junto con el estado y
+ * el analista asignado. Todo ocurre en la página, sin idas y vueltas con WebDriver.
+ *
+ * Argumentos:
+ *   arguments[0] -> número de servicio a buscar (ej. "IN123456").
+ *   arguments[1] -> selectores del perfil de página: campoBusqueda, pestanaActividades,
+ *                   textoPestanaActividades, bloqueActividades y posicionActividades (base 1).
+ *   arguments[2] -> tiempo máximo de espera en milisegundos.
+ *   arguments[3] -> true para enviar la búsqueda, false si ya fue enviada y solo se debe esperar.
+ *   último       -> callback de WebDriver.
+ */
+var servicio = arguments[0];
+var perfil = arguments[1];
+var timeoutMs = arguments[2];
+var enviarBusqueda = arguments[3];
+var callback = arguments[arguments.length - 1];
+var limite = Date.now() + timeoutMs;
+
+function responder(payload) {
+	callback(JSON.stringify(payload));
+}
+
+// Reconstruye el texto respetando los saltos de línea (<br> y bloques) sin calcular el texto visible
+function textoPlano(nodo) {
+	var partes = [];
+	(function recorrer(n) {
+		for (var hijo = n.firstChild; hijo; hijo = hijo.nextSibling) {
+			if (hijo.nodeType === 3) {
+				partes.push(hijo.nodeValue);
+			} else if (hijo.nodeType === 1) {
+				if (hijo.tagName === 'BR') {
+					partes.push('\n');
+					continue;
+				}
+				var bloque = /^(DIV|P|LI|TR)$/.test(hijo.tagName);
+				if (bloque) partes.push('\n');
+				recorrer(hijo);
+				if (bloque) partes.push('\n');
+			}
+		}
+	})(nodo);
+	return partes.join('').replace(/\r\n?/g, '\n').replace(/\u00a0/g, ' ').trim();
+}
+
+// Lee el valor del campo asociado a la primera etiqueta cuyo texto empiece por alguno de los nombres dados
+function leerCampo(nombres) {
+	var etiquetas = document.getElementsByTagName('label');
+	for (var i = 0; i < etiquetas.length; i++) {
+		var texto = (etiquetas[i].textContent || '').trim().toLowerCase();
+		for (var j = 0; j < nombres.length; j++) {
+			if (texto.indexOf(nombres[j]) === 0) {
+				var campo = etiquetas[i].htmlFor ? document.getElementById(etiquetas[i].htmlFor) : null;
+				if (campo) return ('value' in campo ? campo.value : campo.textContent || '').trim();
+			}
+		}
+	}
+	return '';
+}
+
+function pestanaActividades() {
+	var enlaces = document.querySelectorAll(perfil.pestanaActividades);
+	for (var i = 0; i < enlaces.length; i++) {
+		if ((enlaces[i].textContent || '').indexOf(perfil.textoPestanaActividades) !== -1) return enlaces[i];
+	}
+	return null;
+}
+
+if (enviarBusqueda) {
+	var input = document.querySelector(perfil.campoBusqueda);
+	if (!input) {
+		responder({ ok: false, tiempoAgotado: true, error: 'No se encontró el campo de búsqueda' });
+		return;
+	}
+	input.focus();
+	input.value = servicio;
+	input.dispatchEvent(new Event('input', { bubbles: true }));
+	input.dispatchEvent(new Event('change', { bubbles: true }));
+	['keydown', 'keypress', 'keyup'].forEach(function (tipo) {
+		input.dispatchEvent(new KeyboardEvent(tipo, { key: 'Enter', code: 'Enter', keyCode: 13, which: 13, bubbles: true }));
+	});
+}
+
+var pestanaAbierta = false;
+(function esperar() {
+	if (!pestanaAbierta) {
+		var pestana = pestanaActividades();
+		if (pestana) {
+			pestana.click();
+			pestanaAbierta = true;
+		}
+	}
+
+	if (pestanaAbierta) {
+		var bloques = document.querySelectorAll(perfil.bloqueActividades);
+		if (bloques.length >= perfil.posicionActividades) {
+			var texto = textoPlano(bloques[perfil.posicionActividades - 1]);
+			if (texto.length > 0) {
+				responder({
+					ok: true,
+					texto: texto,
+					estado: leerCampo(['estado', 'status']),
+					asignado: leerCampo(['asignado', 'assignee'])
+				});
+				return;
+			}
+		}
+	}
+
+	// Sin pestaña de actividades el servicio suele estar cerrado; con la pestaña abierta y sin
+	// contenido, la página no terminó de cargar
+	if (Date.now() > limite) {
+		responder({ ok: false, tiempoAgotado: pestanaAbierta, sinPestana: !pestanaAbierta,
+			error: 'No se encontraron actividades para ' + servicio });
+		return;
+	}
+	setTimeout(esperar, 100);
+})();